@@ -0,0 +1,90 @@
+package com.bank.api.techtask.aspect;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ * Recording a call is a handful of {@link LongAdder} increments, so concurrent callers never
+ * block each other; percentiles are approximate, reported as the upper bound of their bucket.
+ */
+class LatencyHistogram {
+
+    /** Bucket {@code i} holds calls shorter than {@code 2^i} microseconds; the last one is open-ended. */
+    private static final int BUCKETS = 32;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one call.
+     *
+     * @param nanos the duration of the call
+     * @param failed whether the call threw
+     */
+    void record(long nanos, boolean failed) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Returns a summary of the recorded calls. Concurrent recordings may be partly included.
+     *
+     * @return the count, error count, mean, maximum and approximate percentiles in milliseconds
+     */
+    Map<String, Object> snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", total);
+        snapshot.put("errors", errors.sum());
+        snapshot.put("meanMs", total == 0 ? 0.0 : toMillis(totalNanos.sum() / (double) count.sum()));
+        snapshot.put("maxMs", toMillis(maxNanos.get()));
+        snapshot.put("p50Ms", percentile(counts, total, 0.50));
+        snapshot.put("p90Ms", percentile(counts, total, 0.90));
+        snapshot.put("p99Ms", percentile(counts, total, 0.99));
+        return snapshot;
+    }
+
+    private double percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min((1L << i) / 1000.0, toMillis(maxNanos.get()));
+            }
+        }
+        return toMillis(maxNanos.get());
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
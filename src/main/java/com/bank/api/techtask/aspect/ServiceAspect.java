@@ -1,69 +1,171 @@
 package com.bank.api.techtask.aspect;
 
-import com.bank.api.techtask.exception.UserNotFoundException;
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
-import org.aspectj.lang.annotation.AfterThrowing;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
-import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import java.util.Arrays;
 
+/**
+ * Times every call into the service layer with a single around advice.
+ * <p>
+ * Durations go into a {@link LatencyHistogram} per method. A call is logged only when it is
+ * slower than the slow-call threshold or picked by the sampling rate, and then its arguments
+ * are rendered briefly: simple values are printed, anything else only by type, so logging never
+ * walks entity graphs or triggers lazy loading. Return values are never logged.
+ * The settings can be changed at runtime through {@link ServiceInstrumentationEndpoint}.
+ */
 @Aspect
 @Component
 public class ServiceAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(ServiceAspect.class);
 
-    @Before("execution(* com.bank.api.techtask.service..*.*(..))")
-    public void logBefore(JoinPoint joinPoint) {
-        if (logger.isInfoEnabled()) {
-            logger.info("Entering method: {} with arguments: {}", joinPoint.getSignature().toShortString(), Arrays.toString(joinPoint.getArgs()));
+    private static final int MAX_ARGUMENT_LENGTH = 64;
+
+    private final Map<Method, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    private volatile double sampleRate;
+    private volatile long slowThresholdNanos;
+
+    /**
+     * Constructs a new ServiceAspect.
+     *
+     * @param enabled whether calls are timed
+     * @param sampleRate the fraction of calls to log, from 0 to 1
+     * @param slowThreshold the duration from which every call is logged
+     */
+    public ServiceAspect(@Value("${service.instrumentation.enabled:true}") boolean enabled,
+                         @Value("${service.instrumentation.sample-rate:0}") double sampleRate,
+                         @Value("${service.instrumentation.slow-threshold:500ms}") Duration slowThreshold) {
+        configure(enabled, sampleRate, slowThreshold);
+    }
+
+    @Around("execution(* com.bank.api.techtask.service..*.*(..))")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            histograms.computeIfAbsent(method, m -> new LatencyHistogram()).record(elapsed, failed);
+            if (elapsed >= slowThresholdNanos) {
+                logCall("Slow call", joinPoint, elapsed, failed);
+            } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                logCall("Sampled call", joinPoint, elapsed, failed);
+            }
         }
     }
 
-    @AfterReturning(pointcut = "execution(* com.bank.api.techtask.service..*.*(..))", returning = "result")
-    public void logAfterReturning(JoinPoint joinPoint, Object result) {
-        if (logger.isInfoEnabled()) {
-            logger.info("Exiting method: {} with result: {}", joinPoint.getSignature().toShortString(), result);
+    /**
+     * Changes the instrumentation settings.
+     *
+     * @param enabled whether calls are timed
+     * @param sampleRate the fraction of calls to log, from 0 to 1
+     * @param slowThreshold the duration from which every call is logged
+     * @throws IllegalArgumentException if the sample rate or threshold is out of range
+     */
+    public void configure(boolean enabled, double sampleRate, Duration slowThreshold) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1");
+        }
+        if (slowThreshold.isNegative()) {
+            throw new IllegalArgumentException("Slow threshold must not be negative");
         }
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
     }
 
-    @AfterThrowing(pointcut = "execution(* com.bank.api.techtask.service..*.*(..))", throwing = "error")
-    public void logAfterThrowing(JoinPoint joinPoint, Throwable error) {
-        if (logger.isErrorEnabled()) {
-            logger.error("Exception in method: {} with cause: {}", joinPoint.getSignature().toShortString(), error.getMessage(), error);
+    public Duration getSlowThreshold() {
+        return Duration.ofNanos(slowThresholdNanos);
+    }
+
+    /**
+     * Returns the latency summary of every method called so far, keyed by
+     * {@code Class.method(ParameterTypes)}.
+     *
+     * @return the summaries sorted by method
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new TreeMap<>();
+        histograms.forEach((method, histogram) -> snapshot.put(methodName(method), histogram.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * Drops all recorded timings.
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    private static String methodName(Method method) {
+        StringJoiner parameters = new StringJoiner(",", "(", ")");
+        for (Class<?> type : method.getParameterTypes()) {
+            parameters.add(type.getSimpleName());
         }
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName() + parameters;
     }
 
-    @Around("execution(* com.bank.api.techtask.service..*.*(..))")
-    public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        long startTime = System.currentTimeMillis();
-        if (logger.isInfoEnabled()) {
-            logger.info("Method {} execution start", joinPoint.getSignature().toShortString());
+    private static void logCall(String kind, ProceedingJoinPoint joinPoint, long elapsedNanos, boolean failed) {
+        if (!logger.isInfoEnabled()) {
+            return;
         }
+        logger.info("{}: {} took {} ms{} with arguments: {}", kind, joinPoint.getSignature().toShortString(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), failed ? " and failed" : "",
+                describeArguments(joinPoint.getArgs()));
+    }
 
-        try {
-            Object result = joinPoint.proceed();
-            long elapsedTime = System.currentTimeMillis() - startTime;
-            if (logger.isInfoEnabled()) {
-                logger.info("Method {} execution end, elapsed time: {} ms", joinPoint.getSignature().toShortString(), elapsedTime);
-            }
-            return result;
-        } catch (IllegalArgumentException e) {
-            if (logger.isErrorEnabled()) {
-                logger.error("Illegal argument: {} in method: {}", Arrays.toString(joinPoint.getArgs()), joinPoint.getSignature().toShortString());
-            }
-            throw e;
-        } catch (UserNotFoundException e) {
-            if (logger.isErrorEnabled()) {
-                logger.error("User not found!");
+    private static String describeArguments(Object[] args) {
+        StringBuilder description = new StringBuilder("[");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                description.append(", ");
             }
-            throw e;
+            description.append(describe(args[i]));
+        }
+        return description.append(']').toString();
+    }
+
+    private static String describe(Object arg) {
+        if (arg == null || arg instanceof Number || arg instanceof Boolean || arg instanceof Enum<?>
+                || arg instanceof Date || arg instanceof TemporalAccessor) {
+            return String.valueOf(arg);
+        }
+        if (arg instanceof CharSequence text) {
+            return text.length() > MAX_ARGUMENT_LENGTH
+                    ? "\"" + text.subSequence(0, MAX_ARGUMENT_LENGTH) + "...\""
+                    : "\"" + text + "\"";
         }
+        return arg.getClass().getSimpleName();
     }
 }
@@ -0,0 +1,67 @@
+package com.bank.api.techtask.aspect;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint {@code /actuator/serviceinstrumentation} for the {@link ServiceAspect}.
+ * GET returns the settings and the per-method latencies, POST changes the settings without a
+ * redeploy and DELETE drops the recorded latencies.
+ */
+@Component
+@Endpoint(id = "serviceinstrumentation")
+public class ServiceInstrumentationEndpoint {
+
+    private final ServiceAspect serviceAspect;
+
+    @Autowired
+    public ServiceInstrumentationEndpoint(ServiceAspect serviceAspect) {
+        this.serviceAspect = serviceAspect;
+    }
+
+    @ReadOperation
+    public Map<String, Object> instrumentation() {
+        Map<String, Object> instrumentation = settings();
+        instrumentation.put("methods", serviceAspect.snapshot());
+        return instrumentation;
+    }
+
+    /**
+     * Changes the settings that are given and keeps the others.
+     *
+     * @param enabled whether service calls are timed
+     * @param sampleRate the fraction of calls to log, from 0 to 1
+     * @param slowThresholdMs the duration in milliseconds from which every call is logged
+     * @return the new settings
+     */
+    @WriteOperation
+    public Map<String, Object> configure(@Nullable Boolean enabled, @Nullable Double sampleRate,
+                                         @Nullable Long slowThresholdMs) {
+        serviceAspect.configure(
+                enabled == null ? serviceAspect.isEnabled() : enabled,
+                sampleRate == null ? serviceAspect.getSampleRate() : sampleRate,
+                slowThresholdMs == null ? serviceAspect.getSlowThreshold() : Duration.ofMillis(slowThresholdMs));
+        return settings();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        serviceAspect.reset();
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("enabled", serviceAspect.isEnabled());
+        settings.put("sampleRate", serviceAspect.getSampleRate());
+        settings.put("slowThresholdMs", serviceAspect.getSlowThreshold().toMillis());
+        return settings;
+    }
+}
@@ -0,0 +1,64 @@
+package com.bank.api.techtask.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.time.Duration;
+
+/**
+ * Kafka setup for the inbound deposit consumer. The consumer itself is configured through the
+ * {@code spring.kafka.consumer.*} properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "deposits.consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class DepositConsumerConfiguration {
+
+    /**
+     * Declares the deposits topic, so it is created on startup if it does not exist.
+     *
+     * @param topic the topic name
+     * @param partitions the number of partitions
+     * @return the topic definition
+     */
+    @Bean
+    public NewTopic depositsTopic(@Value("${deposits.topic:bank.deposits}") String topic,
+                                  @Value("${deposits.partitions:6}") int partitions) {
+        return TopicBuilder.name(topic).partitions(partitions).build();
+    }
+
+    /**
+     * Creates the container factory of the deposit listener: batch delivery, offsets acknowledged by the
+     * listener, and a failed batch retried until it succeeds, since no deposit may be skipped. Deposits
+     * that can never be credited are dead-lettered by {@link com.bank.api.techtask.service.DepositService}
+     * instead of failing the batch, so only transient failures, such as a lost database connection, are
+     * retried here.
+     *
+     * @param configurer the configurer applying the {@code spring.kafka.listener.*} properties
+     * @param consumerFactory the consumer factory
+     * @param retryInterval the pause before a failed batch is redelivered
+     * @return the container factory
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> depositListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            @Value("${deposits.consumer.retry-interval:5s}") Duration retryInterval) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                new FixedBackOff(retryInterval.toMillis(), FixedBackOff.UNLIMITED_ATTEMPTS)));
+        return factory;
+    }
+}
@@ -1,5 +1,6 @@
 package com.bank.api.techtask.config;
 
+import com.bank.api.techtask.jfr.TokenRevocationCheckEvent;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -39,12 +40,21 @@ public class InvalidTokenRepository {
         if (token == null || token.isEmpty()) {
             return false;
         }
+        TokenRevocationCheckEvent event = new TokenRevocationCheckEvent();
+        event.begin();
+        boolean revoked;
         lock.lock();
         try {
-            return invalidTokens.contains(token);
+            revoked = invalidTokens.contains(token);
         } finally {
             lock.unlock();
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setRevoked(revoked);
+            event.commit();
+        }
+        return revoked;
     }
 
     /**
@@ -2,6 +2,7 @@ package com.bank.api.techtask.config;
 
 import com.bank.api.techtask.service.JwtService;
 import com.bank.api.techtask.service.UserService;
+import com.bank.api.techtask.trace.RequestTrace;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -68,11 +69,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        String jwt = authHeader.substring(BEARER_PREFIX.length());
+        long start = System.nanoTime();
+        try {
+            authenticate(request, authHeader.substring(BEARER_PREFIX.length()));
+        } finally {
+            RequestTrace.recordAuthentication(System.nanoTime() - start);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(HttpServletRequest request, String jwt) {
         String username = jwtService.extractUserName(jwt);
 
         if (invalidTokenRepository.isTokenInvalid(jwt)) {
-            filterChain.doFilter(request, response);
             return;
         }
 
@@ -96,6 +105,5 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 SecurityContextHolder.setContext(context);
             }
         }
-        filterChain.doFilter(request, response);
     }
 }
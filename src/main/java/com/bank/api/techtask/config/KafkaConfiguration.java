@@ -0,0 +1,30 @@
+package com.bank.api.techtask.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Kafka setup for the outbox relay. The producer itself is configured through the
+ * {@code spring.kafka.producer.*} properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class KafkaConfiguration {
+
+    /**
+     * Declares the account events topic, so it is created on startup if it does not exist.
+     *
+     * @param topic the topic name
+     * @param partitions the number of partitions
+     * @return the topic definition
+     */
+    @Bean
+    public NewTopic accountEventsTopic(@Value("${outbox.relay.topic:bank.account-events}") String topic,
+                                       @Value("${outbox.relay.partitions:6}") int partitions) {
+        return TopicBuilder.name(topic).partitions(partitions).build();
+    }
+}
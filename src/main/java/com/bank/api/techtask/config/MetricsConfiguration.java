@@ -0,0 +1,28 @@
+package com.bank.api.techtask.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics of components that do not record them themselves.
+ * Timers on the hot paths are registered by the services that own them; their percentile
+ * histograms are switched on in {@code application.properties}.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Publishes the number of revoked tokens held in memory.
+     *
+     * @param invalidTokenRepository the revocation store
+     * @return the binder registering the {@code bank.jwt.revoked.tokens} gauge
+     */
+    @Bean
+    public MeterBinder revokedTokensMetrics(InvalidTokenRepository invalidTokenRepository) {
+        return registry -> Gauge.builder("bank.jwt.revoked.tokens", invalidTokenRepository, InvalidTokenRepository::size)
+                .description("Number of revoked JWTs kept in memory")
+                .register(registry);
+    }
+}
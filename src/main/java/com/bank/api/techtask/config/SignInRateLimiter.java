@@ -0,0 +1,167 @@
+package com.bank.api.techtask.config;
+
+import com.bank.api.techtask.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory throttling of sign-in attempts, keyed by username and by client IP.
+ * Each key owns a token bucket held in a {@link ConcurrentHashMap} and updated inside
+ * {@code compute}, which locks only that key's bin, so concurrent sign-ins of different users
+ * do not wait for each other.
+ * <p>
+ * Once the map grows past {@code max-buckets}, full buckets are swept out: a full bucket is
+ * indistinguishable from a new one, so dropping it forgets nothing. A bucket that still holds
+ * debt is never dropped, so flooding the limiter with fresh keys cannot reset a victim's bucket.
+ * Every bucket is full again at most {@code burst} refill periods after its last attempt, which
+ * bounds the map by the attempts an attacker can make in that window.
+ */
+@Component
+public class SignInRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final BucketSpec usernameSpec;
+    private final BucketSpec ipSpec;
+    private final int maxBuckets;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+
+    /**
+     * Constructs a new SignInRateLimiter.
+     *
+     * @param usernameBurst the number of attempts a username may make in a burst
+     * @param usernameRefillPeriod the time it takes to regain one attempt for a username
+     * @param ipBurst the number of attempts a client IP may make in a burst
+     * @param ipRefillPeriod the time it takes to regain one attempt for a client IP
+     * @param maxBuckets the number of buckets above which full buckets are evicted
+     * @param meterRegistry the registry for the bucket gauge
+     */
+    @Autowired
+    public SignInRateLimiter(@Value("${auth.signin.rate-limit.username.burst:5}") int usernameBurst,
+                             @Value("${auth.signin.rate-limit.username.refill-period:12s}") Duration usernameRefillPeriod,
+                             @Value("${auth.signin.rate-limit.ip.burst:20}") int ipBurst,
+                             @Value("${auth.signin.rate-limit.ip.refill-period:3s}") Duration ipRefillPeriod,
+                             @Value("${auth.signin.rate-limit.max-buckets:100000}") int maxBuckets,
+                             MeterRegistry meterRegistry) {
+        this.usernameSpec = new BucketSpec(usernameBurst, usernameRefillPeriod);
+        this.ipSpec = new BucketSpec(ipBurst, ipRefillPeriod);
+        this.maxBuckets = maxBuckets;
+        Gauge.builder("bank.signin.buckets", buckets, Map::size)
+                .description("Sign-in rate limit buckets kept in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consumes one sign-in attempt for the given client IP and username.
+     *
+     * @param username the username the client is trying to sign in as
+     * @param clientIp the IP address of the client
+     * @throws TooManyRequestsException if either bucket is exhausted
+     */
+    public void acquire(String username, String clientIp) {
+        acquire(username, clientIp, System.nanoTime());
+    }
+
+    /**
+     * Consumes one sign-in attempt at the given time.
+     *
+     * @param now the current {@link System#nanoTime()}
+     */
+    void acquire(String username, String clientIp, long now) {
+        if (clientIp != null) {
+            check(tryConsume("ip:" + clientIp, ipSpec, now));
+        }
+        if (username != null) {
+            check(tryConsume("user:" + username.toLowerCase(Locale.ROOT), usernameSpec, now));
+        }
+        if (buckets.size() > maxBuckets) {
+            sweep(now);
+        }
+    }
+
+    private static void check(long waitNanos) {
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            throw new TooManyRequestsException("Too many sign-in attempts", retryAfterSeconds);
+        }
+    }
+
+    private long tryConsume(String key, BucketSpec spec, long now) {
+        long[] waitNanos = new long[1];
+        buckets.compute(key, (k, bucket) -> {
+            Bucket current = bucket == null ? new Bucket(spec, now) : bucket;
+            waitNanos[0] = current.tryConsume(now);
+            return current;
+        });
+        return waitNanos[0];
+    }
+
+    /**
+     * Evicts the full buckets, at most once per second however many sign-ins find the map too large.
+     */
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (String key : buckets.keySet()) {
+            buckets.computeIfPresent(key, (k, bucket) -> bucket.isFull(now) ? null : bucket);
+        }
+    }
+
+    private record BucketSpec(int burst, long refillNanos) {
+
+        BucketSpec(int burst, Duration refillPeriod) {
+            this(burst, refillPeriod.toNanos());
+        }
+    }
+
+    /**
+     * Token bucket expressed as a theoretical arrival time (GCRA): the bucket is full when the
+     * stored time lies {@code burst} refill periods or more in the past, and empty when it lies less
+     * than one refill period in the past. Only accessed inside the map's {@code compute}, which
+     * serialises access per key.
+     */
+    private static final class Bucket {
+
+        private final long refillNanos;
+        private final long capacityNanos;
+        private long theoreticalArrival;
+
+        Bucket(BucketSpec spec, long now) {
+            this.refillNanos = spec.refillNanos();
+            this.capacityNanos = spec.refillNanos() * spec.burst();
+            this.theoreticalArrival = now - capacityNanos;
+        }
+
+        /**
+         * Tries to take one token.
+         *
+         * @param now the current {@link System#nanoTime()}
+         * @return 0 if a token was taken, otherwise the nanoseconds until one becomes available
+         */
+        long tryConsume(long now) {
+            long next = Math.max(theoreticalArrival, now - capacityNanos) + refillNanos;
+            long excess = next - now;
+            if (excess > 0) {
+                return excess;
+            }
+            theoreticalArrival = next;
+            return 0;
+        }
+
+        boolean isFull(long now) {
+            return theoreticalArrival - (now - capacityNanos) <= 0;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.bank.api.techtask.config;
+
+import com.bank.api.techtask.jfr.PasswordHashEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} decorator that records the time spent hashing and verifying passwords
+ * in the {@code bank.password.hash} timer, tagged with the operation.
+ * BCrypt is deliberately slow, so this is usually the largest part of a sign-up or sign-in.
+ * Each call is also reported as a {@link PasswordHashEvent} when flight recording is enabled for it.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    /**
+     * Constructs a new TimedPasswordEncoder.
+     *
+     * @param delegate the encoder doing the work
+     * @param meterRegistry the registry for the timers
+     */
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer(meterRegistry, "encode");
+        this.matchesTimer = timer(meterRegistry, "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        try {
+            return encodeTimer.record(() -> delegate.encode(rawPassword));
+        } finally {
+            commit(event, "encode");
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        try {
+            return Boolean.TRUE.equals(matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+        } finally {
+            commit(event, "matches");
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static void commit(PasswordHashEvent event, String operation) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setOperation(operation);
+            event.commit();
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("bank.password.hash")
+                .description("Time spent hashing or verifying a password")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -1,9 +1,11 @@
 package com.bank.api.techtask.controller;
 
+import com.bank.api.techtask.config.SignInRateLimiter;
 import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
 import com.bank.api.techtask.domain.dto.SignInRequest;
 import com.bank.api.techtask.domain.dto.SignUpRequest;
 import com.bank.api.techtask.exception.ForbiddenException;
+import com.bank.api.techtask.exception.TooManyRequestsException;
 import com.bank.api.techtask.service.AuthenticationService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -22,10 +24,13 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
+    private final SignInRateLimiter signInRateLimiter;
 
     @Autowired
-    public AuthController(AuthenticationService authenticationService) {
+    public AuthController(AuthenticationService authenticationService,
+                          SignInRateLimiter signInRateLimiter) {
         this.authenticationService = authenticationService;
+        this.signInRateLimiter = signInRateLimiter;
     }
 
     /**
@@ -38,9 +43,7 @@ public class AuthController {
     @PostMapping("/signup")
     public JwtAuthenticationResponse signUp(@RequestBody @Valid SignUpRequest signUpRequest) {
         try {
-            JwtAuthenticationResponse response = authenticationService.signUp(signUpRequest);
-            setUsernameAndRole(response, signUpRequest.getUsername());
-            return response;
+            return authenticationService.signUp(signUpRequest);
         } catch (ForbiddenException e) {
             throw new ForbiddenException(
                     "Some error occurred while auth processing: " + e.getMessage());
@@ -49,17 +52,20 @@ public class AuthController {
 
     /**
      * Signs in a user and returns a JWT authentication response.
+     * Attempts are throttled per username and per client IP before any password check runs.
      *
      * @param signInRequest the sign-in request containing user credentials
+     * @param request the HTTP servlet request
      * @return the JWT authentication response
+     * @throws TooManyRequestsException if the username or client IP made too many attempts
      * @throws ForbiddenException if an error occurs during authentication processing
      */
     @PostMapping("/signin")
-    public JwtAuthenticationResponse signIn(@RequestBody @Valid SignInRequest signInRequest) {
+    public JwtAuthenticationResponse signIn(@RequestBody @Valid SignInRequest signInRequest,
+                                            HttpServletRequest request) {
+        signInRateLimiter.acquire(signInRequest.getUsername(), request.getRemoteAddr());
         try {
-            JwtAuthenticationResponse response = authenticationService.signIn(signInRequest);
-            setUsernameAndRole(response, signInRequest.getUsername());
-            return response;
+            return authenticationService.signIn(signInRequest);
         } catch (Exception e) {
             throw new ForbiddenException("Invalid username or password");
         }
@@ -81,15 +87,4 @@ public class AuthController {
             throw new ForbiddenException("You do not have permission to access this resource");
         }
     }
-
-    /**
-     * Sets the username and role in the JWT authentication response.
-     *
-     * @param response the JWT authentication response
-     * @param username the username
-     */
-    void setUsernameAndRole(JwtAuthenticationResponse response, String username) {
-        response.setUsername(username);
-        response.setRole(authenticationService.findUserRolesByUsername(username));
-    }
 }
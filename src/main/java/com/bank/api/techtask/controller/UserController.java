@@ -1,10 +1,24 @@
 package com.bank.api.techtask.controller;
 
+import com.bank.api.techtask.domain.dto.AccountSummary;
+import com.bank.api.techtask.domain.dto.UserNameMatch;
+import com.bank.api.techtask.domain.dto.UserSortKey;
+import com.bank.api.techtask.domain.dto.UserSummary;
 import com.bank.api.techtask.domain.dto.validation.EmailDTO;
 import com.bank.api.techtask.domain.dto.validation.PhoneNumberDTO;
 import com.bank.api.techtask.domain.model.User;
+import com.bank.api.techtask.domain.response.BalanceResponse;
+import com.bank.api.techtask.domain.response.CursorPage;
+import com.bank.api.techtask.domain.response.SliceResponse;
+import com.bank.api.techtask.domain.response.TransferHistoryEntry;
+import com.bank.api.techtask.domain.response.UserImportReport;
 import com.bank.api.techtask.service.AuthenticationService;
+import com.bank.api.techtask.service.UserExportService;
+import com.bank.api.techtask.service.UserExportService.ExportFormat;
+import com.bank.api.techtask.service.UserImportService;
+import com.bank.api.techtask.service.UserImportService.ImportFormat;
 import com.bank.api.techtask.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -12,12 +26,19 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Date;
+import java.util.List;
 /**
  * Controller for managing users.
  */
@@ -28,11 +49,16 @@ public class UserController {
 
     private final AuthenticationService authenticationService;
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
 
     @Autowired
-    public UserController(AuthenticationService authenticationService, UserService userService) {
+    public UserController(AuthenticationService authenticationService, UserService userService,
+                          UserImportService userImportService, UserExportService userExportService) {
         this.authenticationService = authenticationService;
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.userExportService = userExportService;
     }
 
     /**
@@ -91,7 +117,7 @@ public class UserController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<User>> getAllUsers(
+    public ResponseEntity<Page<UserSummary>> getAllUsers(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateOfBirth,
             @RequestParam(required = false) String phoneNumber,
             @RequestParam(required = false) String fullName,
@@ -104,10 +130,178 @@ public class UserController {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy.equals("balance") ? "account.balance" : sortBy);
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<User> users = userService.getAllUsers(dateOfBirth, phoneNumber, fullName, email, pageable, sort);
+        Page<UserSummary> users = userService.getAllUsers(dateOfBirth, phoneNumber, fullName, email, pageable, sort);
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Lists users like {@code /all}, but without the count query behind the page total.
+     * An approximate total from the planner statistics can be requested instead.
+     *
+     * @param withTotal whether to include the approximate number of matching users
+     * @return a response entity with the slice of users
+     */
+    @GetMapping("/all/slice")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SliceResponse<UserSummary>> getAllUsersSlice(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateOfBirth,
+            @RequestParam(required = false) String phoneNumber,
+            @RequestParam(required = false) String fullName,
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "fullName") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy.equals("balance") ? "account.balance" : sortBy);
+
+        Pageable pageable = PageRequest.of(page, size, sort);
+        SliceResponse<UserSummary> users = userService.getAllUsersSlice(dateOfBirth, phoneNumber, fullName, email,
+                pageable, sort, withTotal);
+        return ResponseEntity.ok(users);
+    }
+
+    /**
+     * Lists users with keyset (seek) pagination, for walking through the whole user base.
+     * The first page is requested without a cursor; each response carries the cursor for the next page.
+     *
+     * @param size the maximum number of users on the page
+     * @param sortBy the sort key: fullName, dateOfBirth, email or balance
+     * @param sortDirection the sort direction: asc or desc
+     * @param cursor the continuation token of the previous page
+     * @return a response entity with the page and the next continuation token
+     */
+    @GetMapping("/all/seek")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<UserSummary>> getAllUsersSeek(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateOfBirth,
+            @RequestParam(required = false) String phoneNumber,
+            @RequestParam(required = false) String fullName,
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "fullName") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(required = false) String cursor) {
+
+        CursorPage<UserSummary> users = userService.getAllUsersAfter(dateOfBirth, phoneNumber, fullName, email, size,
+                UserSortKey.fromParameter(sortBy), Sort.Direction.fromString(sortDirection), cursor);
+        return ResponseEntity.ok(users);
+    }
+
+    /**
+     * Searches users by a part of the full name, tolerating typos. Unlike the {@code fullName}
+     * filter of {@code /all}, which matches a case-sensitive prefix, the query may occur anywhere
+     * in the name.
+     *
+     * @param query the name or part of it, at least three characters long
+     * @param limit the maximum number of users to return, from 1 to 100
+     * @return a response entity with the matching users, most similar first
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<UserNameMatch>> searchUsersByName(@RequestParam("q") String query,
+                                                                 @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(userService.searchUsersByName(query, limit));
+    }
+
+    /**
+     * Imports users in bulk from an NDJSON or CSV request body.
+     * The body is streamed, so its size is not limited by the heap.
+     *
+     * @param contentType the content type of the body, {@code application/x-ndjson} or {@code text/csv}
+     * @param body the request body
+     * @return a response entity with the import report
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserImportReport> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                        InputStream body) throws IOException {
+        ImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ImportFormat.NDJSON : ImportFormat.CSV;
+        return ResponseEntity.ok(userImportService.importUsers(body, format));
+    }
+
+    /**
+     * Exports all users matching the filters of {@code /all} as NDJSON or CSV in a single response.
+     * The users are streamed to the client as they are read from the database.
+     *
+     * @param format the output format, {@code ndjson} or {@code csv}
+     * @param response the response to stream the users to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateOfBirth,
+            @RequestParam(required = false) String phoneNumber,
+            @RequestParam(required = false) String fullName,
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"users." + exportFormat.getExtension() + "\"");
+        userExportService.exportUsers(dateOfBirth, phoneNumber, fullName, email, exportFormat,
+                response.getOutputStream());
+    }
+
+    /**
+     * Returns the current user's balance, served from memory together with the instant it is current as of.
+     *
+     * @return the balance of the current user's account
+     */
+    @GetMapping("/me/balance")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BalanceResponse> getBalance() {
+        return ResponseEntity.ok(userService.getBalance());
+    }
+
+    /**
+     * Streams the current user's balance changes as server-sent events named {@code balance}, starting
+     * with the current balance. Slow clients are disconnected and are expected to reconnect.
+     *
+     * @return the event stream
+     */
+    @GetMapping(value = "/me/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public SseEmitter getBalanceEvents() {
+        return userService.openBalanceEvents();
+    }
+
+    /**
+     * Returns the current user's account.
+     *
+     * @return the ID, balance and initial balance of the current user's account
+     */
+    @GetMapping("/me/account")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<AccountSummary> getAccount() {
+        return ResponseEntity.ok(userService.getAccount());
+    }
+
+    /**
+     * Lists the current user's transfers, newest first, with keyset pagination. The first page is
+     * requested without a cursor; each response carries the cursor for the next page.
+     *
+     * @param size the maximum number of transfers on the page
+     * @param cursor the continuation token of the previous page
+     * @param from the first day of the period
+     * @param to the last day of the period, inclusive
+     * @return a response entity with the page and the next continuation token
+     */
+    @GetMapping("/me/transfers")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPage<TransferHistoryEntry>> getTransfers(
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(userService.getTransfers(size, cursor, from, to));
+    }
 
     @PostMapping("/transfer")
     @PreAuthorize("hasRole('USER')")
@@ -0,0 +1,32 @@
+package com.bank.api.techtask.domain.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Read model of an account for its owner.
+ * Built directly by the account query, so reading an account never loads its user.
+ */
+public class AccountSummary {
+
+    private final Long id;
+    private final BigDecimal balance;
+    private final BigDecimal initialBalance;
+
+    public AccountSummary(Long id, BigDecimal balance, BigDecimal initialBalance) {
+        this.id = id;
+        this.balance = balance;
+        this.initialBalance = initialBalance;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public BigDecimal getInitialBalance() {
+        return initialBalance;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bank.api.techtask.domain.dto;
+
+import com.bank.api.techtask.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paged account statement: the time and id of the last line returned.
+ * Clients only see it as an opaque continuation token.
+ */
+public class TransferCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final Instant createdAt;
+    private final long id;
+
+    public TransferCursor(Instant createdAt, long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Decodes a continuation token.
+     *
+     * @param token the token returned by {@link #encode()}
+     * @return the cursor
+     * @throws InvalidCursorException if the token is malformed
+     */
+    public static TransferCursor decode(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, 2);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (parts.length != 2) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        try {
+            return new TransferCursor(Instant.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque, URL-safe token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,97 @@
+package com.bank.api.techtask.domain.dto;
+
+import com.bank.api.techtask.exception.InvalidCursorException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paged user listing: the sort key and direction the listing uses
+ * and the sort value and tie-breaking id of the last user returned.
+ * Clients only see it as an opaque continuation token.
+ */
+public class UserCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final UserSortKey sortKey;
+    private final Sort.Direction direction;
+    private final Comparable<?> value;
+    private final long id;
+
+    public UserCursor(UserSortKey sortKey, Sort.Direction direction, Comparable<?> value, long id) {
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    /**
+     * Creates the cursor pointing right after the given user.
+     *
+     * @param sortKey the sort key of the listing
+     * @param direction the sort direction of the listing
+     * @param user the last user of the page
+     * @return the cursor
+     */
+    public static UserCursor after(UserSortKey sortKey, Sort.Direction direction, UserSummary user) {
+        return new UserCursor(sortKey, direction, sortKey.valueOf(user), sortKey.tieBreakerOf(user));
+    }
+
+    /**
+     * Decodes a continuation token.
+     *
+     * @param token the token returned by {@link #encode()}
+     * @return the cursor
+     * @throws InvalidCursorException if the token is malformed
+     */
+    public static UserCursor decode(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (parts.length != 4 || parts[3].isEmpty()) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        try {
+            UserSortKey sortKey = UserSortKey.valueOf(parts[0]);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            long id = Long.parseLong(parts[2]);
+            Comparable<?> value = parts[3].charAt(0) == 'n' ? null : sortKey.parse(parts[3].substring(1));
+            return new UserCursor(sortKey, direction, value, id);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque, URL-safe token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        String encodedValue = value == null ? "n" : "v" + sortKey.format(value);
+        String raw = sortKey.name() + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + encodedValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public UserSortKey getSortKey() {
+        return sortKey;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Comparable<?> getValue() {
+        return value;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,40 @@
+package com.bank.api.techtask.domain.dto;
+
+/**
+ * A user found by the fuzzy name search, with the similarity of its full name to the query.
+ */
+public class UserNameMatch {
+
+    private final Long id;
+    private final String username;
+    private final String fullName;
+    private final double score;
+
+    public UserNameMatch(Long id, String username, String fullName, double score) {
+        this.id = id;
+        this.username = username;
+        this.fullName = fullName;
+        this.score = score;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    /**
+     * Returns the similarity of the full name to the query, from 0 to 1.
+     *
+     * @return the similarity score.
+     */
+    public double getScore() {
+        return score;
+    }
+}
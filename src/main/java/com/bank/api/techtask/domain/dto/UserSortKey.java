@@ -0,0 +1,117 @@
+package com.bank.api.techtask.domain.dto;
+
+import com.bank.api.techtask.domain.model.User;
+import com.bank.api.techtask.exception.InvalidCursorException;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Sort keys supported by the user listings, with the entity path each one maps to and the id that
+ * breaks ties between equal values: the id of the same table, so {@code (key, id)} matches an index.
+ */
+public enum UserSortKey {
+
+    FULL_NAME("fullName", "fullName", false),
+    DATE_OF_BIRTH("dateOfBirth", "dateOfBirth", false),
+    EMAIL("email", "email", true),
+    BALANCE("balance", "account.balance", false);
+
+    private final String parameter;
+    private final String path;
+    private final boolean nullable;
+
+    UserSortKey(String parameter, String path, boolean nullable) {
+        this.parameter = parameter;
+        this.path = path;
+        this.nullable = nullable;
+    }
+
+    /**
+     * Resolves a sort key from the {@code sortBy} request parameter.
+     *
+     * @param parameter the request parameter value
+     * @return the sort key
+     * @throws IllegalArgumentException if the parameter is not a supported sort key
+     */
+    public static UserSortKey fromParameter(String parameter) {
+        for (UserSortKey key : values()) {
+            if (key.parameter.equals(parameter) || key.path.equals(parameter)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort key: " + parameter);
+    }
+
+    /**
+     * Returns the entity path of the sort key, relative to {@link User}.
+     *
+     * @return the entity path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns whether the sort key is a property of the account rather than of the user. Such keys
+     * are tie-broken by the account id.
+     *
+     * @return true if the key is an account property
+     */
+    public boolean isAccountProperty() {
+        return path.startsWith("account.");
+    }
+
+    /**
+     * Returns whether the sorted column may contain nulls.
+     *
+     * @return true if the column is nullable
+     */
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    /**
+     * Returns the value of this sort key for the given user.
+     *
+     * @param user the user
+     * @return the sort value, may be null
+     */
+    public Comparable<?> valueOf(UserSummary user) {
+        return switch (this) {
+            case FULL_NAME -> user.getFullName();
+            case DATE_OF_BIRTH -> user.getDateOfBirth() == null ? null : new Date(user.getDateOfBirth().getTime());
+            case EMAIL -> user.getEmail();
+            case BALANCE -> user.getBalance();
+        };
+    }
+
+    /**
+     * Returns the id that breaks ties between users with the same value of this sort key.
+     *
+     * @param user the user
+     * @return the account id for account properties, the user id otherwise
+     */
+    public long tieBreakerOf(UserSummary user) {
+        return isAccountProperty() ? user.getAccountId() : user.getId();
+    }
+
+    String format(Comparable<?> value) {
+        if (value instanceof Date date) {
+            return Long.toString(date.getTime());
+        }
+        return value.toString();
+    }
+
+    Comparable<?> parse(String value) {
+        try {
+            return switch (this) {
+                case FULL_NAME, EMAIL -> value;
+                case DATE_OF_BIRTH -> new Date(Long.parseLong(value));
+                case BALANCE -> new BigDecimal(value);
+            };
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Malformed cursor value");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bank.api.techtask.domain.dto;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Read model of a user for the admin listings.
+ * Built directly by the search query, so listing users never loads roles, accounts or credentials.
+ */
+public class UserSummary {
+
+    private final Long id;
+    private final String username;
+    private final String fullName;
+    private final Date dateOfBirth;
+    private final String email;
+    private final String phoneNumber;
+    private final Long accountId;
+    private final BigDecimal balance;
+
+    public UserSummary(Long id, String username, String fullName, Date dateOfBirth, String email,
+                       String phoneNumber, Long accountId, BigDecimal balance) {
+        this.id = id;
+        this.username = username;
+        this.fullName = fullName;
+        this.dateOfBirth = dateOfBirth;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.accountId = accountId;
+        this.balance = balance;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public Date getDateOfBirth() {
+        return dateOfBirth;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+}
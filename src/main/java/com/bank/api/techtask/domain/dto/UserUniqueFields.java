@@ -0,0 +1,15 @@
+package com.bank.api.techtask.domain.dto;
+
+/**
+ * Projection of the user columns that must be unique across all users.
+ */
+public interface UserUniqueFields {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getPhoneNumber();
+}
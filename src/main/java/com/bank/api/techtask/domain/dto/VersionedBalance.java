@@ -0,0 +1,32 @@
+package com.bank.api.techtask.domain.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Balance of an account together with the version of the account row it was read from.
+ * Built directly by the account query, so reading it never loads the account.
+ */
+public class VersionedBalance {
+
+    private final Long id;
+    private final BigDecimal balance;
+    private final long version;
+
+    public VersionedBalance(Long id, BigDecimal balance, long version) {
+        this.id = id;
+        this.balance = balance;
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
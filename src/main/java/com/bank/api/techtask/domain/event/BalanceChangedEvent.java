@@ -0,0 +1,43 @@
+package com.bank.api.techtask.domain.event;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Application event published when account balances have been changed. Listeners that keep
+ * copies of balances, such as the balance read model, apply the new balances once the
+ * transaction has committed.
+ */
+public class BalanceChangedEvent {
+
+    private final List<AccountBalance> balances;
+
+    /**
+     * Constructs a new BalanceChangedEvent.
+     *
+     * @param balances the new balances of the changed accounts.
+     */
+    public BalanceChangedEvent(List<AccountBalance> balances) {
+        this.balances = List.copyOf(balances);
+    }
+
+    /**
+     * Returns the new balances of the changed accounts.
+     *
+     * @return the balances.
+     */
+    public List<AccountBalance> getBalances() {
+        return balances;
+    }
+
+    /**
+     * The balance of an account after the change.
+     *
+     * @param accountId the account
+     * @param balance the new balance
+     * @param version the version of the account row the balance was read with; of two balances of an
+     *                account, the one with the higher version is the newer
+     */
+    public record AccountBalance(long accountId, BigDecimal balance, long version) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.bank.api.techtask.domain.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Inbound message asking to credit an external deposit, such as a card top-up or an incoming wire.
+ *
+ * @param messageId the producer's unique id of the deposit, used to drop replays
+ * @param accountId the account to credit
+ * @param amount the amount deposited
+ */
+public record DepositReceived(String messageId, long accountId, BigDecimal amount) {
+}
@@ -0,0 +1,15 @@
+package com.bank.api.techtask.domain.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Message published when deposits received in one batch have been credited to an account.
+ *
+ * @param accountId the account
+ * @param amount the total amount credited
+ * @param deposits the number of deposits summed into the amount
+ * @param occurredAt when the credit was made
+ */
+public record DepositsCredited(long accountId, BigDecimal amount, int deposits, Instant occurredAt) {
+}
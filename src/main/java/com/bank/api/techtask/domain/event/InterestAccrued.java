@@ -0,0 +1,15 @@
+package com.bank.api.techtask.domain.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Message published when the scheduled accrual has raised an account balance.
+ *
+ * @param accountId the account
+ * @param previousBalance the balance before the accrual
+ * @param balance the balance after the accrual
+ * @param occurredAt when the accrual was made
+ */
+public record InterestAccrued(long accountId, BigDecimal previousBalance, BigDecimal balance, Instant occurredAt) {
+}
@@ -0,0 +1,42 @@
+package com.bank.api.techtask.domain.event;
+
+import java.util.List;
+
+/**
+ * Application event published when emails have been written to the {@code notification} table.
+ * The notification dispatcher queues them for sending once the transaction has committed.
+ */
+public class NotificationsQueuedEvent {
+
+    private final List<QueuedEmail> emails;
+
+    /**
+     * Constructs a new NotificationsQueuedEvent.
+     *
+     * @param emails the stored emails.
+     */
+    public NotificationsQueuedEvent(List<QueuedEmail> emails) {
+        this.emails = List.copyOf(emails);
+    }
+
+    /**
+     * Returns the stored emails.
+     *
+     * @return the emails.
+     */
+    public List<QueuedEmail> getEmails() {
+        return emails;
+    }
+
+    /**
+     * An email as stored in the {@code notification} table.
+     *
+     * @param id the ID of the row
+     * @param recipient the address to send to
+     * @param subject the subject
+     * @param body the plain text body
+     * @param attempts the number of failed attempts so far
+     */
+    public record QueuedEmail(long id, String recipient, String subject, String body, int attempts) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.bank.api.techtask.domain.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Message published when money has been moved between two accounts.
+ *
+ * @param senderAccountId the account the money was taken from
+ * @param recipientAccountId the account the money was added to
+ * @param amount the amount transferred
+ * @param senderBalance the sender's balance after the transfer
+ * @param recipientBalance the recipient's balance after the transfer
+ * @param occurredAt when the transfer was made
+ */
+public record TransferCompleted(long senderAccountId, long recipientAccountId, BigDecimal amount,
+                                BigDecimal senderBalance, BigDecimal recipientBalance, Instant occurredAt) {
+}
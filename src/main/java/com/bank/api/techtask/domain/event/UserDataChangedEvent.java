@@ -0,0 +1,31 @@
+package com.bank.api.techtask.domain.event;
+
+import java.util.List;
+
+/**
+ * Application event published when users are created, changed or deleted.
+ * Listeners that keep derived copies of user data, such as search indexes, use the ids
+ * to refresh only the affected users.
+ */
+public class UserDataChangedEvent {
+
+    private final List<Long> userIds;
+
+    /**
+     * Constructs a new UserDataChangedEvent.
+     *
+     * @param userIds the ids of the users that were created, changed or deleted.
+     */
+    public UserDataChangedEvent(List<Long> userIds) {
+        this.userIds = List.copyOf(userIds);
+    }
+
+    /**
+     * Returns the ids of the affected users.
+     *
+     * @return the user ids.
+     */
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+}
@@ -2,12 +2,14 @@ package com.bank.api.techtask.domain.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
-@Table(name = "account")
+@Table(name = "account", indexes = @Index(name = "account_updated_at_idx", columnList = "updated_at"))
 public class Account implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,6 +23,20 @@ public class Account implements Serializable {
     private BigDecimal balance;
     private BigDecimal initialBalance;
 
+    /**
+     * Incremented by every change of the balance, while the row is locked.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * When the balance was last changed. Set by the database on insert.
+     */
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at", nullable = false, insertable = false)
+    private Instant updatedAt;
+
     public Long getId() {
         return id;
     }
@@ -52,4 +68,20 @@ public class Account implements Serializable {
     public void setInitialBalance(BigDecimal initialBalance) {
         this.initialBalance = initialBalance;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
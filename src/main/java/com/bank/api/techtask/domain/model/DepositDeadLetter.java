@@ -0,0 +1,70 @@
+package com.bank.api.techtask.domain.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * An inbound deposit message that could not be credited, kept for investigation and replay.
+ * Rows are written with plain JDBC in batches; the mapping describes the table.
+ */
+@Entity
+@Table(name = "deposit_dead_letter")
+public class DepositDeadLetter {
+    @Id
+    @Column(name = "message_id", length = 100)
+    private String messageId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 100)
+    private String reason;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(Instant receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+}
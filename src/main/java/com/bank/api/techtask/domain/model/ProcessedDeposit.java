@@ -0,0 +1,59 @@
+package com.bank.api.techtask.domain.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The id of an inbound deposit message that has already been applied.
+ * Rows are written with plain JDBC in batches; the mapping describes the table.
+ */
+@Entity
+@Table(name = "processed_deposit")
+public class ProcessedDeposit {
+    @Id
+    @Column(name = "message_id", length = 100)
+    private String messageId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "processed_at", nullable = false)
+    private Instant processedAt;
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Instant getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(Instant processedAt) {
+        this.processedAt = processedAt;
+    }
+}
@@ -0,0 +1,83 @@
+package com.bank.api.techtask.domain.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One line of an account statement: a transfer as seen from one of its two accounts.
+ * Rows are written and read with plain JDBC; the mapping describes the table, which is
+ * range partitioned by month on {@code created_at} in the database.
+ */
+@Entity
+@Table(name = "transfer_history",
+        indexes = @Index(name = "transfer_history_account_created_id_idx", columnList = "account_id, created_at, id"))
+public class TransferHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "counterparty_account_id", nullable = false)
+    private Long counterpartyAccountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "balance_after", nullable = false, precision = 19, scale = 2)
+    private BigDecimal balanceAfter;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getCounterpartyAccountId() {
+        return counterpartyAccountId;
+    }
+
+    public void setCounterpartyAccountId(Long counterpartyAccountId) {
+        this.counterpartyAccountId = counterpartyAccountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public BigDecimal getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public void setBalanceAfter(BigDecimal balanceAfter) {
+        this.balanceAfter = balanceAfter;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,14 @@
+package com.bank.api.techtask.domain.response;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The balance of an account as served by the balance read model.
+ *
+ * @param accountId the account
+ * @param balance the balance
+ * @param asOf the freshness watermark: every change committed before this instant is included in the balance
+ */
+public record BalanceResponse(long accountId, BigDecimal balance, Instant asOf) {
+}
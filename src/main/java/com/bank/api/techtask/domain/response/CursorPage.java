@@ -0,0 +1,40 @@
+package com.bank.api.techtask.domain.response;
+
+import java.util.List;
+
+/**
+ * A page of a keyset-paged listing together with the token to fetch the next page.
+ *
+ * @param <T> the type of the page content
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = List.copyOf(content);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return content.size();
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Returns the continuation token for the next page.
+     *
+     * @return the token, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,50 @@
+package com.bank.api.techtask.domain.response;
+
+import java.util.List;
+
+/**
+ * A page of a listing that was fetched without counting all matching rows.
+ *
+ * @param <T> the type of the page content
+ */
+public class SliceResponse<T> {
+
+    private final List<T> content;
+    private final int page;
+    private final int size;
+    private final boolean hasNext;
+    private final Long approximateTotal;
+
+    public SliceResponse(List<T> content, int page, int size, boolean hasNext, Long approximateTotal) {
+        this.content = List.copyOf(content);
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.approximateTotal = approximateTotal;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Returns the planner's estimate of the number of matching rows.
+     *
+     * @return the estimate, or null if it was not requested or is not available
+     */
+    public Long getApproximateTotal() {
+        return approximateTotal;
+    }
+}
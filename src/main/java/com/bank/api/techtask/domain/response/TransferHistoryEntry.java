@@ -0,0 +1,17 @@
+package com.bank.api.techtask.domain.response;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One line of an account statement.
+ *
+ * @param id the ID of the line, unique together with its time
+ * @param counterpartyAccountId the other account of the transfer
+ * @param amount the amount, negative when the money left the account
+ * @param balanceAfter the balance of the account right after the transfer
+ * @param createdAt when the transfer was made
+ */
+public record TransferHistoryEntry(long id, long counterpartyAccountId, BigDecimal amount, BigDecimal balanceAfter,
+                                   Instant createdAt) {
+}
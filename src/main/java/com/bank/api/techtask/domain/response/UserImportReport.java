@@ -0,0 +1,93 @@
+package com.bank.api.techtask.domain.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import: row counters and the rows that were rejected.
+ * Only the first {@link #MAX_ERRORS} row errors are kept so that a bad file
+ * cannot turn the report itself into an unbounded buffer.
+ */
+public class UserImportReport {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private long totalRows;
+    private long importedRows;
+    private long rejectedRows;
+    private boolean errorsTruncated;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public List<RowError> getErrors() {
+        return List.copyOf(errors);
+    }
+
+    /**
+     * Counts a row read from the input.
+     */
+    public void rowRead() {
+        totalRows++;
+    }
+
+    /**
+     * Counts rows that were written to the database.
+     *
+     * @param count the number of imported rows
+     */
+    public void rowsImported(int count) {
+        importedRows += count;
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param line the line number of the row in the input
+     * @param message the reason the row was rejected
+     */
+    public void rowRejected(long line, String message) {
+        rejectedRows++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    /**
+     * A rejected row of the input.
+     */
+    public static class RowError {
+
+        private final long line;
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.bank.api.techtask.domain.response.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -110,6 +111,34 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles TooManyRequestsException.
+     *
+     * @param request   the HTTP servlet request
+     * @param exception the TooManyRequestsException
+     * @return a ResponseEntity with an ErrorResponse
+     * object that contains the error message, HTTP status code TOO_MANY_REQUESTS
+     * and a Retry-After header
+     */
+    @ExceptionHandler(value = {TooManyRequestsException.class})
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(
+            HttpServletRequest request, TooManyRequestsException exception) {
+        logger.warn("TooManyRequestsException occurred! Client: {}", request.getRemoteAddr());
+        ErrorResponse errorResponse =
+                new ErrorResponse("Too many attempts, try again later", HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(value = {InvalidCursorException.class, IllegalArgumentException.class})
+    public ResponseEntity<ErrorResponse> handleInvalidRequestParameter(HttpServletRequest request,
+                                                                       RuntimeException exception) {
+        logger.error("Invalid request parameter! Message: {}", exception.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(exception.getMessage(), HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(value = {DeleteException.class})
     public ResponseEntity<ErrorResponse> handleDeleteException(
             HttpServletRequest request, DeleteException exception) {
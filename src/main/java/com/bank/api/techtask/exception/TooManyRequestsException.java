@@ -0,0 +1,31 @@
+package com.bank.api.techtask.exception;
+
+/**
+ * Custom exception class to handle throttled requests.
+ * This exception is thrown when a client exceeds the allowed request rate
+ * and has to wait before trying again.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new TooManyRequestsException with the specified detail message.
+     *
+     * @param message the detail message.
+     * @param retryAfterSeconds the number of seconds the client should wait before retrying.
+     */
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Returns the number of seconds the client should wait before retrying.
+     *
+     * @return the retry delay in seconds.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,49 @@
+package com.bank.api.techtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one chunk of accounts processed by the scheduled balance accrual.
+ */
+@Name("com.bank.AccrualChunk")
+@Label("Accrual Chunk")
+@Category({"Bank", "Accrual"})
+@Description("A chunk of accounts loaded, accrued and written back in one transaction")
+@Enabled(false)
+@StackTrace(false)
+public class AccrualChunkEvent extends Event {
+
+    @Label("Chunk")
+    private int chunk;
+
+    @Label("Accounts")
+    private int accounts;
+
+    @Label("First Account")
+    private long firstAccountId;
+
+    @Label("Last Account")
+    private long lastAccountId;
+
+    public void setChunk(int chunk) {
+        this.chunk = chunk;
+    }
+
+    public void setAccounts(int accounts) {
+        this.accounts = accounts;
+    }
+
+    public void setFirstAccountId(long firstAccountId) {
+        this.firstAccountId = firstAccountId;
+    }
+
+    public void setLastAccountId(long lastAccountId) {
+        this.lastAccountId = lastAccountId;
+    }
+}
@@ -0,0 +1,28 @@
+package com.bank.api.techtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one password hash or hash comparison.
+ */
+@Name("com.bank.PasswordHash")
+@Label("Password Hash")
+@Category({"Bank", "Security"})
+@Description("Hashing a password or checking a password against its hash")
+@Enabled(false)
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+}
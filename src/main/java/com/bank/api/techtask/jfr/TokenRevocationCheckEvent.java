@@ -0,0 +1,28 @@
+package com.bank.api.techtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one lookup in the revoked token store, including the wait for its lock.
+ */
+@Name("com.bank.TokenRevocationCheck")
+@Label("Token Revocation Check")
+@Category({"Bank", "Security"})
+@Description("Lookup of a JWT in the revoked token store")
+@Enabled(false)
+@StackTrace(false)
+public class TokenRevocationCheckEvent extends Event {
+
+    @Label("Revoked")
+    private boolean revoked;
+
+    public void setRevoked(boolean revoked) {
+        this.revoked = revoked;
+    }
+}
@@ -0,0 +1,28 @@
+package com.bank.api.techtask.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one parse and signature check of a JWT.
+ */
+@Name("com.bank.TokenVerification")
+@Label("Token Verification")
+@Category({"Bank", "Security"})
+@Description("Parsing and signature verification of a JWT")
+@Enabled(false)
+@StackTrace(false)
+public class TokenVerificationEvent extends Event {
+
+    @Label("Valid")
+    private boolean valid;
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+}
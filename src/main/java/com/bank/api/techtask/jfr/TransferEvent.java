@@ -0,0 +1,82 @@
+package com.bank.api.techtask.jfr;
+
+import java.math.BigDecimal;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for one money transfer. The amount is recorded only as an order of magnitude.
+ */
+@Name("com.bank.Transfer")
+@Label("Money Transfer")
+@Category({"Bank", "Transfers"})
+@Description("A money transfer between two accounts")
+@Enabled(false)
+@StackTrace(false)
+public class TransferEvent extends Event {
+
+    private static final int MAX_BUCKET_EXPONENT = 6;
+
+    @Label("Sender Account")
+    private long senderAccountId;
+
+    @Label("Recipient Account")
+    private long recipientAccountId;
+
+    @Label("Amount Bucket")
+    private String amountBucket;
+
+    @Label("Lock Wait")
+    @Description("Time spent waiting for the account locks")
+    @Timespan
+    private long lockWait;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public void setSenderAccountId(long senderAccountId) {
+        this.senderAccountId = senderAccountId;
+    }
+
+    public void setRecipientAccountId(long recipientAccountId) {
+        this.recipientAccountId = recipientAccountId;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amountBucket = bucketOf(amount);
+    }
+
+    public void setLockWait(long lockWaitNanos) {
+        this.lockWait = lockWaitNanos;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    /**
+     * Returns the power-of-ten range an amount falls into, such as {@code 100-1000}.
+     *
+     * @param amount the amount
+     * @return the range
+     */
+    static String bucketOf(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        if (amount.compareTo(BigDecimal.ONE) < 0) {
+            return "0-1";
+        }
+        int exponent = amount.precision() - amount.scale() - 1;
+        if (exponent >= MAX_BUCKET_EXPONENT) {
+            return BigDecimal.TEN.pow(MAX_BUCKET_EXPONENT).toPlainString() + "+";
+        }
+        return BigDecimal.TEN.pow(exponent).toPlainString() + "-" + BigDecimal.TEN.pow(exponent + 1).toPlainString();
+    }
+}
@@ -1,9 +1,91 @@
 package com.bank.api.techtask.repository;
 
+import com.bank.api.techtask.domain.dto.AccountSummary;
+import com.bank.api.techtask.domain.dto.VersionedBalance;
 import com.bank.api.techtask.domain.model.Account;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
+
+    /**
+     * Finds the next accounts in ID order, for walking through all accounts in chunks. The rows are
+     * locked until the end of the transaction, so a concurrent transfer or deposit waits instead of
+     * being overwritten by the balances written back from the returned accounts.
+     *
+     * @param id the ID of the last account of the previous chunk, or 0 for the first chunk.
+     * @param limit the maximum number of accounts to return.
+     * @return the accounts with an ID greater than the given one, in ascending ID order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id > :id ORDER BY a.id")
+    List<Account> findForUpdateByIdGreaterThan(Long id, Limit limit);
+
+    /**
+     * Subtracts an amount from the balance of an account if the balance covers it. The balance is
+     * changed relative to its current value in the database, never overwritten, and the version and the
+     * change time of the account are updated.
+     *
+     * @param id the ID of the account.
+     * @param amount the amount to subtract.
+     * @return 1 if the balance was debited, 0 if the account does not exist or its balance is too low.
+     */
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.version = a.version + 1, "
+            + "a.updatedAt = INSTANT WHERE a.id = :id AND a.balance >= :amount")
+    int debit(Long id, BigDecimal amount);
+
+    /**
+     * Adds an amount to the balance of an account, relative to its current value in the database, and
+     * updates the version and the change time of the account.
+     *
+     * @param id the ID of the account.
+     * @param amount the amount to add.
+     * @return 1 if the balance was credited, 0 if the account does not exist.
+     */
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1, "
+            + "a.updatedAt = INSTANT WHERE a.id = :id")
+    int credit(Long id, BigDecimal amount);
+
+    /**
+     * Finds the ID of a user's account without loading the account.
+     *
+     * @param userId the ID of the user.
+     * @return the ID of the user's account, if the user has one.
+     */
+    @Query("SELECT a.id FROM Account a WHERE a.user.id = :userId")
+    Optional<Long> findIdByUserId(Long userId);
+
+    /**
+     * Reads an account by its primary key without loading the account's user.
+     *
+     * @param id the ID of the account.
+     * @return the account summary, if the account exists.
+     */
+    @Query("SELECT new com.bank.api.techtask.domain.dto.AccountSummary(a.id, a.balance, a.initialBalance) "
+            + "FROM Account a WHERE a.id = :id")
+    Optional<AccountSummary> findSummaryById(Long id);
+
+    /**
+     * Reads the balances and versions of accounts by their primary keys without loading them into the
+     * persistence context, so the balances are the current ones even if the accounts were loaded earlier
+     * in the transaction.
+     *
+     * @param ids the IDs of the accounts.
+     * @return the balances of the accounts that exist, in ascending ID order.
+     */
+    @Query("SELECT new com.bank.api.techtask.domain.dto.VersionedBalance(a.id, a.balance, a.version) "
+            + "FROM Account a WHERE a.id IN :ids ORDER BY a.id")
+    List<VersionedBalance> findBalancesByIdIn(Collection<Long> ids);
 }
@@ -1,10 +1,18 @@
 package com.bank.api.techtask.repository;
 
+import com.bank.api.techtask.domain.dto.UserUniqueFields;
 import com.bank.api.techtask.domain.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,14 +20,28 @@ import java.util.Optional;
  * Provides methods for basic CRUD operations and querying users by username and email.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserSearchRepository {
 
     /**
-     * Finds a user by its username.
+     * Finds a page of users matching the specification, fetching each user's account in the same query.
+     * Roles are batch-loaded, so a page costs a bounded number of queries regardless of its size.
+     *
+     * @param spec the filters to apply.
+     * @param pageable the page number, size and sort.
+     * @return the page of users.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"account"}, type = EntityGraph.EntityGraphType.LOAD)
+    Page<User> findAll(Specification<User> spec, Pageable pageable);
+
+    /**
+     * Finds a user by its username, together with its roles and account, in a single query.
      *
      * @param username the username of the user to find.
      * @return an Optional containing the user if it exists, or an empty Optional if it does not.
      */
+    @EntityGraph(attributePaths = {"roles", "account"})
     Optional<User> findByUsername(String username);
 
     /**
@@ -40,4 +62,19 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
 
     boolean existsByPhoneNumber(String phoneNumber);
 
+    /**
+     * Finds the unique fields of every user that shares the given username, email or phone number.
+     * Lets callers check all three uniqueness constraints in a single round trip.
+     *
+     * @param username the username to check.
+     * @param email the email to check.
+     * @param phoneNumber the phone number to check.
+     * @return the unique fields of the conflicting users, empty if there is no conflict.
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.phoneNumber AS phoneNumber "
+            + "FROM User u WHERE u.username = :username OR u.email = :email OR u.phoneNumber = :phoneNumber")
+    List<UserUniqueFields> findUniqueFieldConflicts(@Param("username") String username,
+                                                    @Param("email") String email,
+                                                    @Param("phoneNumber") String phoneNumber);
+
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.bank.api.techtask.repository;
+
+import com.bank.api.techtask.domain.dto.UserCursor;
+import com.bank.api.techtask.domain.dto.UserSortKey;
+import com.bank.api.techtask.domain.dto.UserSummary;
+import com.bank.api.techtask.domain.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Custom search queries for the User entity that Spring Data cannot derive.
+ */
+public interface UserSearchRepository {
+
+    /**
+     * Finds a page of user summaries matching the specification. The summaries, including the
+     * account balance, are selected by a single query; a count query follows only when the page
+     * is full.
+     *
+     * @param spec the filters to apply.
+     * @param pageable the page number, size and sort.
+     * @return the page of user summaries.
+     */
+    Page<UserSummary> findSummaries(Specification<User> spec, Pageable pageable);
+
+    /**
+     * Finds the summaries of users matching the specification in keyset (seek) order: sorted by the
+     * given key with the {@linkplain UserSortKey#tieBreakerOf tie-breaking id}, starting right after
+     * the cursor position. Users without a value of the key come last when ascending and first when
+     * descending. Every page is an index range read, however deep into the listing it is.
+     *
+     * @param spec the filters to apply.
+     * @param sortKey the sort key.
+     * @param direction the sort direction.
+     * @param after the position to continue from, or null to start from the beginning.
+     * @param limit the maximum number of users to return.
+     * @return the summaries of the users following the cursor.
+     */
+    List<UserSummary> findAllAfter(Specification<User> spec, UserSortKey sortKey, Sort.Direction direction,
+                                   UserCursor after, int limit);
+
+    /**
+     * Finds a slice of the summaries of users matching the specification. Unlike
+     * {@link #findSummaries} no count query is run: one extra row is fetched to tell whether a next
+     * slice exists.
+     *
+     * @param spec the filters to apply.
+     * @param pageable the page number, size and sort.
+     * @return the slice of user summaries.
+     */
+    Slice<UserSummary> findSlice(Specification<User> spec, Pageable pageable);
+
+    /**
+     * Estimates the number of users matching the search filters from the planner statistics,
+     * without counting the rows.
+     *
+     * @param dateOfBirth the minimum date of birth, or null.
+     * @param phoneNumber the phone number, or null.
+     * @param fullName the full name prefix, or null.
+     * @param email the email, or null.
+     * @return the estimated number of users, or null if the database cannot provide an estimate.
+     */
+    Long estimateCount(Date dateOfBirth, String phoneNumber, String fullName, String email);
+
+    /**
+     * Streams the summaries of all users matching the search filters, in no particular order,
+     * through a forward-only JDBC cursor. Only {@code fetchSize} rows are held in memory at a time,
+     * provided the call runs inside a transaction: outside of one the PostgreSQL driver ignores
+     * the fetch size and reads the whole result.
+     *
+     * @param dateOfBirth the minimum date of birth, or null.
+     * @param phoneNumber the phone number, or null.
+     * @param fullName the full name prefix, or null.
+     * @param email the email, or null.
+     * @param fetchSize the number of rows to fetch from the database per round trip.
+     * @param action the callback invoked for every user summary.
+     */
+    void streamSummaries(Date dateOfBirth, String phoneNumber, String fullName, String email, int fetchSize,
+                         Consumer<UserSummary> action);
+}
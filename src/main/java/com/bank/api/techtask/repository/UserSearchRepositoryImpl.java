@@ -0,0 +1,309 @@
+package com.bank.api.techtask.repository;
+
+import com.bank.api.techtask.domain.dto.UserCursor;
+import com.bank.api.techtask.domain.dto.UserSortKey;
+import com.bank.api.techtask.domain.dto.UserSummary;
+import com.bank.api.techtask.domain.model.Account;
+import com.bank.api.techtask.domain.model.User;
+import com.bank.api.techtask.exception.InvalidCursorException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.json.JSONArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Criteria API implementation of {@link UserSearchRepository}.
+ * Nulls are ordered as the largest values (last when ascending, first when descending),
+ * which is how PostgreSQL b-tree indexes order them, so the queries stay index-ordered.
+ */
+public class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchRepositoryImpl.class);
+
+    private static final String ID = "id";
+    private static final String ACCOUNT = "account";
+    private static final String SELECT_SUMMARIES = "SELECT u.id, u.username, u.full_name, u.date_of_birth, u.email, "
+            + "u.phone_number, a.id, a.balance FROM users u LEFT JOIN account a ON a.user_id = u.id WHERE TRUE";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserSearchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UserSummary> findSummaries(Specification<User> spec, Pageable pageable) {
+        List<UserSummary> content = summaryQuery(spec, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private TypedQuery<UserSummary> summaryQuery(Specification<User> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummary> query = cb.createQuery(UserSummary.class);
+        Root<User> root = query.from(User.class);
+        boolean sortedByBalance = sort.getOrderFor(UserSortKey.BALANCE.getPath()) != null;
+        Join<User, Account> account = root.join(ACCOUNT, sortedByBalance ? JoinType.INNER : JoinType.LEFT);
+
+        query.select(summary(cb, root, account))
+                .where(spec == null ? cb.conjunction() : spec.toPredicate(root, query, cb))
+                .orderBy(summaryOrders(cb, root, account, sort));
+        return entityManager.createQuery(query);
+    }
+
+    private static CompoundSelection<UserSummary> summary(CriteriaBuilder cb, Root<User> root,
+                                                          Join<User, Account> account) {
+        return cb.construct(UserSummary.class,
+                root.get(ID),
+                root.get("username"),
+                root.get("fullName"),
+                root.get("dateOfBirth"),
+                root.get("email"),
+                root.get("phoneNumber"),
+                account.get(ID),
+                account.get("balance"));
+    }
+
+    /**
+     * Orders the summaries by the requested sort, using the already joined account for
+     * {@code account.*} properties, and appends the id of the sort's table as tie-breaker.
+     * The tie-breaker keeps pages stable and matches the {@code (key, id)} indexes, so for
+     * {@code account.balance} the top of the listing is read straight from
+     * {@code account_balance_id_idx}. Sorting by balance joins the account with an inner join for
+     * the same reason: every user has an account, and an inner join lets the planner drive the
+     * query from that index instead of sorting all users.
+     */
+    private static List<Order> summaryOrders(CriteriaBuilder cb, Root<User> root, Join<User, Account> account,
+                                             Sort sort) {
+        List<Order> orders = new ArrayList<>();
+        From<?, ?> lastFrom = null;
+        Sort.Direction lastDirection = Sort.Direction.ASC;
+        for (Sort.Order order : sort) {
+            From<?, ?> from = sourceOf(root, account, order.getProperty());
+            Expression<?> expression = from.get(lastSegment(order.getProperty()));
+            orders.add(order.isAscending() ? cb.asc(expression) : cb.desc(expression));
+            lastFrom = from;
+            lastDirection = order.getDirection();
+        }
+        if (lastFrom != null) {
+            Expression<?> id = lastFrom.get(ID);
+            orders.add(lastDirection.isAscending() ? cb.asc(id) : cb.desc(id));
+        }
+        return orders;
+    }
+
+    private long count(Specification<User> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<User> root = query.from(User.class);
+        query.select(cb.count(root))
+                .where(spec == null ? cb.conjunction() : spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Reads the listing as up to two segments: the users with a sort value and the users without
+     * one, which come last when ascending and first when descending. Each segment is queried
+     * separately, so every query is a plain {@code (key, id)} range read; the second segment is only
+     * queried when the first one does not fill the page.
+     */
+    @Override
+    public List<UserSummary> findAllAfter(Specification<User> spec, UserSortKey sortKey, Sort.Direction direction,
+                                          UserCursor after, int limit) {
+        List<Boolean> segments = !sortKey.isNullable() ? List.of(false)
+                : direction.isAscending() ? List.of(false, true) : List.of(true, false);
+        int first = after == null ? 0 : segments.indexOf(after.getValue() == null);
+        if (first < 0) {
+            throw new InvalidCursorException("Malformed cursor value");
+        }
+        List<UserSummary> summaries = new ArrayList<>(limit);
+        for (int i = first; i < segments.size() && summaries.size() < limit; i++) {
+            summaries.addAll(findSegment(spec, sortKey, direction, i == first ? after : null, segments.get(i),
+                    limit - summaries.size()));
+        }
+        return summaries;
+    }
+
+    private List<UserSummary> findSegment(Specification<User> spec, UserSortKey sortKey, Sort.Direction direction,
+                                          UserCursor after, boolean nulls, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummary> query = cb.createQuery(UserSummary.class);
+        Root<User> root = query.from(User.class);
+        Join<User, Account> account = root.join(ACCOUNT,
+                sortKey.isAccountProperty() ? JoinType.INNER : JoinType.LEFT);
+
+        Expression<Comparable<Object>> key = sortKeyPath(root, account, sortKey);
+        Path<Long> id = sourceOf(root, account, sortKey.getPath()).get(ID);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(spec == null ? cb.conjunction() : spec.toPredicate(root, query, cb));
+        if (sortKey.isNullable()) {
+            predicates.add(nulls ? cb.isNull(key) : cb.isNotNull(key));
+        }
+        if (after != null) {
+            predicates.add(nulls ? seekId(cb, id, direction, after.getId())
+                    : seekPredicate(cb, key, id, direction, after));
+        }
+
+        query.select(summary(cb, root, account))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(nulls ? List.of(order(cb, id, direction))
+                        : List.of(order(cb, key, direction), order(cb, id, direction)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Slice<UserSummary> findSlice(Specification<User> spec, Pageable pageable) {
+        List<UserSummary> summaries = summaryQuery(spec, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = summaries.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? summaries.subList(0, pageable.getPageSize()) : summaries, pageable,
+                hasNext);
+    }
+
+    /**
+     * Asks PostgreSQL to plan the filtered query and returns the planner's row estimate.
+     * The query mirrors the filters of {@link com.bank.api.techtask.service.UserSpecifications}.
+     */
+    @Override
+    public Long estimateCount(Date dateOfBirth, String phoneNumber, String fullName, String email) {
+        StringBuilder sql = new StringBuilder("EXPLAIN (FORMAT JSON) SELECT 1 FROM users u WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        appendFilters(sql, args, dateOfBirth, phoneNumber, fullName, email);
+        try {
+            String plan = jdbcTemplate.queryForObject(sql.toString(), String.class, args.toArray());
+            return plan == null ? null
+                    : new JSONArray(plan).getJSONObject(0).getJSONObject("Plan").getLong("Plan Rows");
+        } catch (DataAccessException | org.json.JSONException e) {
+            logger.debug("Row estimate is not available: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void streamSummaries(Date dateOfBirth, String phoneNumber, String fullName, String email, int fetchSize,
+                                Consumer<UserSummary> action) {
+        StringBuilder sql = new StringBuilder(SELECT_SUMMARIES);
+        List<Object> args = new ArrayList<>();
+        appendFilters(sql, args, dateOfBirth, phoneNumber, fullName, email);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(ps);
+            return ps;
+        }, rs -> {
+            action.accept(new UserSummary(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getDate(4),
+                    rs.getString(5), rs.getString(6), rs.getObject(7, Long.class), rs.getBigDecimal(8)));
+        });
+    }
+
+    /**
+     * Appends the SQL equivalent of the {@code UserSpecifications} filters for the {@code users u} table.
+     */
+    private static void appendFilters(StringBuilder sql, List<Object> args, Date dateOfBirth, String phoneNumber,
+                                      String fullName, String email) {
+        if (dateOfBirth != null) {
+            sql.append(" AND u.date_of_birth >= ?");
+            args.add(new java.sql.Date(dateOfBirth.getTime()));
+        }
+        if (phoneNumber != null) {
+            sql.append(" AND u.phone_number = ?");
+            args.add(phoneNumber);
+        }
+        if (fullName != null) {
+            sql.append(" AND u.full_name LIKE ?");
+            args.add(fullName + "%");
+        }
+        if (email != null) {
+            sql.append(" AND u.email = ?");
+            args.add(email);
+        }
+    }
+
+    private static Expression<Comparable<Object>> sortKeyPath(Root<User> root, Join<User, Account> account,
+                                                              UserSortKey sortKey) {
+        return sourceOf(root, account, sortKey.getPath()).get(lastSegment(sortKey.getPath()));
+    }
+
+    /**
+     * Returns the user root or, for {@code account.*} properties, the account join.
+     */
+    private static From<?, ?> sourceOf(Root<User> root, Join<User, Account> account, String property) {
+        return property.startsWith(ACCOUNT + ".") ? account : root;
+    }
+
+    private static String lastSegment(String property) {
+        return property.substring(property.lastIndexOf('.') + 1);
+    }
+
+    private static Order order(CriteriaBuilder cb, Expression<?> expression, Sort.Direction direction) {
+        return direction.isAscending() ? cb.asc(expression) : cb.desc(expression);
+    }
+
+    private static Predicate seekId(CriteriaBuilder cb, Path<Long> id, Sort.Direction direction, long lastId) {
+        return direction.isAscending() ? cb.gt(id, lastId) : cb.lt(id, lastId);
+    }
+
+    /**
+     * Builds the predicate selecting the rows with a sort value that follow the cursor in the listing
+     * order. For cursor value {@code v} and id {@code i} in ascending order this is
+     * {@code key >= v AND (key > v OR id > i)}, written so that {@code key >= v} can drive an index range scan.
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate seekPredicate(CriteriaBuilder cb, Expression<Comparable<Object>> key, Path<Long> id,
+                                           Sort.Direction direction, UserCursor after) {
+        Comparable<Object> value = (Comparable<Object>) after.getValue();
+        return direction.isAscending()
+                ? cb.and(cb.greaterThanOrEqualTo(key, value),
+                        cb.or(cb.greaterThan(key, value), seekId(cb, id, direction, after.getId())))
+                : cb.and(cb.lessThanOrEqualTo(key, value),
+                        cb.or(cb.lessThan(key, value), seekId(cb, id, direction, after.getId())));
+    }
+}
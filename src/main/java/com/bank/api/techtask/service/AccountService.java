@@ -1,22 +1,54 @@
 package com.bank.api.techtask.service;
 
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
+import com.bank.api.techtask.domain.event.InterestAccrued;
 import com.bank.api.techtask.domain.model.Account;
+import com.bank.api.techtask.jfr.AccrualChunkEvent;
 import com.bank.api.techtask.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class AccountService {
 
     private final AccountRepository accountRepository;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Timer accrualTimer;
+    private final Counter accrualRows;
 
     @Autowired
-    public AccountService(AccountRepository accountRepository) {
+    public AccountService(AccountRepository accountRepository, OutboxService outboxService,
+                          ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                          @Value("${accounts.accrual.chunk-size:500}") int chunkSize) {
         this.accountRepository = accountRepository;
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.accrualTimer = Timer.builder("bank.accrual")
+                .description("Duration of a balance accrual run")
+                .register(meterRegistry);
+        this.accrualRows = Counter.builder("bank.accrual.rows")
+                .description("Accounts processed by balance accrual runs")
+                .register(meterRegistry);
     }
 
     private void increaseBalance(Account account) {
@@ -31,12 +63,61 @@ public class AccountService {
         }
     }
 
-    @Scheduled(fixedRate = 60000)
+    /**
+     * Accrues interest on all accounts. Accounts are processed in ID order, one chunk per transaction,
+     * so a run never holds more than a chunk in memory. The rows of a chunk are locked while it is
+     * processed, so a transfer or deposit committed meanwhile is not overwritten. Every raised balance is written to the outbox
+     * in the same transaction and published as a {@link BalanceChangedEvent}. Each chunk is reported
+     * as an {@link AccrualChunkEvent} when flight recording is enabled for it.
+     */
+    @Scheduled(fixedRateString = "${accounts.accrual.rate-ms:60000}")
     public void updateBalances() {
-        List<Account> accounts = accountRepository.findAll();
+        accrualTimer.record(() -> {
+            long lastId = 0;
+            int chunk = 0;
+            int processed;
+            do {
+                long afterId = lastId;
+                AccrualChunkEvent event = new AccrualChunkEvent();
+                event.begin();
+                List<Account> accounts = transactionTemplate.execute(status -> accrueChunk(afterId));
+                event.end();
+                processed = accounts.size();
+                if (processed > 0) {
+                    lastId = accounts.get(processed - 1).getId();
+                    if (event.shouldCommit()) {
+                        event.setChunk(chunk);
+                        event.setAccounts(processed);
+                        event.setFirstAccountId(accounts.get(0).getId());
+                        event.setLastAccountId(lastId);
+                        event.commit();
+                    }
+                }
+                accrualRows.increment(processed);
+                chunk++;
+            } while (processed == chunkSize);
+        });
+    }
+
+    private List<Account> accrueChunk(long afterId) {
+        List<Account> accounts = accountRepository.findForUpdateByIdGreaterThan(afterId, Limit.of(chunkSize));
+        List<InterestAccrued> accruals = new ArrayList<>();
+        List<AccountBalance> balances = new ArrayList<>();
+        Instant now = Instant.now();
         for (Account account : accounts) {
+            BigDecimal previousBalance = account.getBalance();
             increaseBalance(account);
-            accountRepository.save(account);
+            if (account.getBalance().compareTo(previousBalance) != 0) {
+                account.setVersion(account.getVersion() + 1);
+                account.setUpdatedAt(now);
+                accruals.add(new InterestAccrued(account.getId(), previousBalance, account.getBalance(), now));
+                balances.add(new AccountBalance(account.getId(), account.getBalance(), account.getVersion()));
+            }
+        }
+        outboxService.recordAccruals(accruals);
+        if (!balances.isEmpty()) {
+            eventPublisher.publishEvent(new BalanceChangedEvent(balances));
         }
+        return accounts;
     }
 }
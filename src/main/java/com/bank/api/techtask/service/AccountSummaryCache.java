@@ -0,0 +1,144 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.AccountSummary;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Least recently used cache of account summaries by account ID, so polling clients do not read the
+ * {@code account} table on every request.
+ * <p>
+ * An account is evicted once a {@link BalanceChangedEvent} for it has committed, which transfers,
+ * the accrual and deposits publish. A summary loaded while its account was evicted is not cached, as
+ * it may have been read before the commit; loads of other accounts are cached as usual. Entries also expire after {@code accounts.cache.ttl}, which
+ * bounds how long a change made by another instance goes unseen. Hits and misses are counted in the
+ * {@code accounts.cache} meter.
+ */
+@Component
+public class AccountSummaryCache {
+
+    private final Map<Long, CachedSummary> cache;
+    // accounts with a load in flight, so an eviction only has to mark the loads it overlaps
+    private final Map<Long, InFlight> loading = new HashMap<>();
+    private long evictions;
+    private final long ttlNanos;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * Constructs a new AccountSummaryCache.
+     *
+     * @param ttl how long a summary is reused, zero to disable the cache
+     * @param maxEntries the maximum number of cached summaries
+     * @param meterRegistry the registry for the hit and miss counters
+     */
+    @Autowired
+    public AccountSummaryCache(@Value("${accounts.cache.ttl:30s}") Duration ttl,
+                               @Value("${accounts.cache.max-entries:10000}") int maxEntries,
+                               MeterRegistry meterRegistry) {
+        this.ttlNanos = ttl.toNanos();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedSummary> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+    }
+
+    /**
+     * Returns the summary of an account from the cache, or by running the loader.
+     *
+     * @param accountId the account
+     * @param loader the query to run on a miss
+     * @return the account summary
+     */
+    public AccountSummary get(Long accountId, Supplier<AccountSummary> loader) {
+        synchronized (cache) {
+            CachedSummary cached = cache.get(accountId);
+            if (cached != null) {
+                if (System.nanoTime() - cached.expiresAt() < 0) {
+                    hits.increment();
+                    return cached.summary();
+                }
+                cache.remove(accountId);
+            }
+        }
+
+        misses.increment();
+        if (ttlNanos <= 0) {
+            return loader.get();
+        }
+        InFlight inFlight;
+        long startedAt;
+        synchronized (cache) {
+            inFlight = loading.computeIfAbsent(accountId, id -> new InFlight());
+            inFlight.loaders++;
+            startedAt = evictions;
+        }
+        AccountSummary summary = null;
+        try {
+            summary = loader.get();
+            return summary;
+        } finally {
+            synchronized (cache) {
+                if (summary != null && inFlight.evictedAt <= startedAt) {
+                    cache.put(accountId, new CachedSummary(summary, System.nanoTime() + ttlNanos));
+                }
+                if (--inFlight.loaders == 0) {
+                    loading.remove(accountId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts the changed accounts once the transaction that changed their balances has committed.
+     *
+     * @param event the event with the changed accounts
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        synchronized (cache) {
+            evictions++;
+            for (AccountBalance balance : event.getBalances()) {
+                cache.remove(balance.accountId());
+                InFlight inFlight = loading.get(balance.accountId());
+                if (inFlight != null) {
+                    inFlight.evictedAt = evictions;
+                }
+            }
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("accounts.cache")
+                .description("Account summary reads by how they were answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record CachedSummary(AccountSummary summary, long expiresAt) {
+    }
+
+    /**
+     * Loads of one account in flight and the last eviction of the account while they ran.
+     */
+    private static class InFlight {
+
+        private int loaders;
+        private long evictedAt;
+    }
+}
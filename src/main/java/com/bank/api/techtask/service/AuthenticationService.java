@@ -5,18 +5,25 @@ import com.bank.api.techtask.config.JwtAuthenticationFilter;
 import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
 import com.bank.api.techtask.domain.dto.SignInRequest;
 import com.bank.api.techtask.domain.dto.SignUpRequest;
+import com.bank.api.techtask.domain.dto.UserUniqueFields;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
+import com.bank.api.techtask.domain.event.UserDataChangedEvent;
 import com.bank.api.techtask.domain.model.Account;
 import com.bank.api.techtask.domain.model.Role;
 import com.bank.api.techtask.domain.model.RoleEnum;
 import com.bank.api.techtask.domain.model.User;
 import com.bank.api.techtask.exception.*;
 import com.bank.api.techtask.repository.AccountRepository;
-import com.bank.api.techtask.repository.RoleRepository;
 import com.bank.api.techtask.repository.UserRepository;
+import com.bank.api.techtask.service.NotificationService.SecurityNotice;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -32,34 +39,41 @@ import java.util.List;
 @Service
 public class AuthenticationService {
 
-    private final UserService userService;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleCache roleCache;
     private final InvalidTokenRepository invalidTokenRepository;
     private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotificationService notificationService;
+    private final boolean signInNoticeEnabled;
 
     private static final String USER_NOT_FOUND_ERROR_MESSAGE = "User not found with id %d";
     /**
      * Constructor.
      */
     @Autowired
-    public AuthenticationService(UserService userService, JwtService jwtService,
+    public AuthenticationService(JwtService jwtService,
                                  PasswordEncoder passwordEncoder,
                                  AuthenticationManager authenticationManager,
-                                 UserRepository userRepository, RoleRepository roleRepository,
+                                 UserRepository userRepository, RoleCache roleCache,
                                  InvalidTokenRepository invalidTokenRepository,
-                                 AccountRepository accountRepository) {
-        this.userService = userService;
+                                 AccountRepository accountRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 NotificationService notificationService,
+                                 @Value("${notifications.sign-in.enabled:true}") boolean signInNoticeEnabled) {
         this.jwtService = jwtService;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleCache = roleCache;
         this.invalidTokenRepository = invalidTokenRepository;
         this.accountRepository = accountRepository;
+        this.eventPublisher = eventPublisher;
+        this.notificationService = notificationService;
+        this.signInNoticeEnabled = signInNoticeEnabled;
     }
 
     /**
@@ -73,17 +87,7 @@ public class AuthenticationService {
 
     @Transactional
     public JwtAuthenticationResponse signUp(SignUpRequest request) {
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new UsernameTakenException("Error: username is taken!");
-        }
-
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new EmailInUseException("Error: email already in use!");
-        }
-
-        if(userRepository.existsByPhoneNumber(request.getPhoneNumber())){
-            throw new PhoneNumberTakenException("Error: phone number already in use!");
-        }
+        checkUniqueFields(null, request.getUsername(), request.getEmail(), request.getPhoneNumber());
 
         BigDecimal initialSum = request.getInitialSum();
         if (initialSum.compareTo(BigDecimal.ZERO) <= 0) {
@@ -97,15 +101,10 @@ public class AuthenticationService {
         user.setEmail(request.getEmail());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setPhoneNumber(request.getPhoneNumber());
-        Role userRole = roleRepository.findByName(RoleEnum.ROLE_USER)
-                .orElseThrow(() -> new RoleNotFoundException("Error. User not found."));
         //defaut admin role
-        Role adminRole = roleRepository.findByName(RoleEnum.ROLE_ADMIN)
-                .orElseThrow(() -> new RoleNotFoundException("Error. Admin not found."));
-
         List<Role> roles = new ArrayList<>();
-        roles.add(userRole);
-        roles.add(adminRole);
+        roles.add(roleCache.get(RoleEnum.ROLE_USER));
+        roles.add(roleCache.get(RoleEnum.ROLE_ADMIN));
 
         user.setRole(roles);
         BigDecimal balance = request.getInitialSum();
@@ -114,33 +113,90 @@ public class AuthenticationService {
         account.setInitialBalance(balance);
         account.setBalance(balance);
         account.setUser(user);
+        user.setAccount(account);
 
         userRepository.save(user);
         accountRepository.save(account);
+        eventPublisher.publishEvent(new UserDataChangedEvent(List.of(user.getId())));
+        eventPublisher.publishEvent(new BalanceChangedEvent(List.of(
+                new AccountBalance(account.getId(), balance, account.getVersion()))));
+
+        return buildResponse(user);
+    }
+
+    /**
+     * Checks a username, email and phone number against the other users with a single query.
+     *
+     * @param userId the ID of the user the values belong to, or null for a new user.
+     * @param username the username to check.
+     * @param email the email to check, may be null.
+     * @param phoneNumber the phone number to check, may be null.
+     * @throws UsernameTakenException if the username is already taken.
+     * @throws EmailInUseException if the email is already in use.
+     * @throws PhoneNumberTakenException if the phone number is already in use.
+     */
+    private void checkUniqueFields(Long userId, String username, String email, String phoneNumber) {
+        List<UserUniqueFields> conflicts = userRepository.findUniqueFieldConflicts(username, email, phoneNumber)
+                .stream()
+                .filter(c -> !c.getId().equals(userId))
+                .toList();
 
-        String jwt = jwtService.generateToken(user);
+        if (conflicts.stream().anyMatch(c -> username != null && username.equals(c.getUsername()))) {
+            throw new UsernameTakenException("Error: username is taken!");
+        }
 
-        return new JwtAuthenticationResponse(jwt);
+        if (conflicts.stream().anyMatch(c -> email != null && email.equals(c.getEmail()))) {
+            throw new EmailInUseException("Error: email already in use!");
+        }
+
+        if (conflicts.stream().anyMatch(c -> phoneNumber != null && phoneNumber.equals(c.getPhoneNumber()))) {
+            throw new PhoneNumberTakenException("Error: phone number already in use!");
+        }
     }
 
     /**
      * Signs in a user with the given sign in request.
+     * The user loaded by the authentication manager is reused for the token and the response,
+     * so a sign in reads the user only once. Unless {@code notifications.sign-in.enabled} is false,
+     * a security notice is queued for the user's email address.
      *
      * @param request the sign in request containing the user's username and password.
-     * @return a JWT authentication response containing the user's token.
+     * @return a JWT authentication response containing the user's token, username and roles.
      */
     public JwtAuthenticationResponse signIn(SignInRequest request) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
-                request.getUsername(),
-                request.getPassword()
-        ));
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(
+                        request.getUsername(),
+                        request.getPassword()
+                ));
 
-        var user = userService
-                .userDetailsService()
-                .loadUserByUsername(request.getUsername());
+        User user = (User) authentication.getPrincipal();
+        JwtAuthenticationResponse response = buildResponse(user);
+        if (signInNoticeEnabled) {
+            notificationService.notifySecurity(SecurityNotice.SIGN_IN, user.getUsername(), user.getEmail());
+        }
+        return response;
+    }
 
-        var jwt = jwtService.generateToken(user);
-        return new JwtAuthenticationResponse(jwt);
+    /**
+     * Builds the JWT authentication response for an already loaded user.
+     *
+     * @param user the user to build the response for.
+     * @return a JWT authentication response containing the user's token, username and roles.
+     * @throws RoleNotFoundException if the user has no roles.
+     */
+    private JwtAuthenticationResponse buildResponse(User user) {
+        List<Role> userRoles = user.getRole();
+        if (userRoles == null || userRoles.isEmpty()) {
+            throw new RoleNotFoundException("Error. Role not found.");
+        }
+
+        JwtAuthenticationResponse response = new JwtAuthenticationResponse(jwtService.generateToken(user));
+        response.setUsername(user.getUsername());
+        response.setRole(userRoles.stream()
+                .map(Role::getName)
+                .toList());
+        return response;
     }
 
     /**
@@ -156,17 +212,22 @@ public class AuthenticationService {
         user.getRole().clear();
 
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(List.of(userId)));
     }
 
     /**
      * Updates a user's details with the given user object.
+     * The new username and email are checked against the other users with a single query.
      *
      * @param userId the ID of the user to update.
      * @param updatedUser the updated user object containing the new details.
+     * @throws UsernameTakenException if another user has the new username.
+     * @throws EmailInUseException if another user has the new email.
      */
     public void updateUser(Long userId, User updatedUser) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(String.format(USER_NOT_FOUND_ERROR_MESSAGE, userId)));
+        checkUniqueFields(userId, updatedUser.getUsername(), updatedUser.getEmail(), null);
 
         user.setUsername(updatedUser.getUsername());
         user.setEmail(updatedUser.getEmail());
@@ -177,6 +238,7 @@ public class AuthenticationService {
         }
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(List.of(userId)));
     }
 
     /**
@@ -193,26 +255,4 @@ public class AuthenticationService {
         }
         SecurityContextHolder.clearContext();
     }
-
-    /**
-     * Finds the roles of a user by their username.
-     *
-     * @param username the username of the user to find the roles for.
-     * @return a list of the user's roles.
-     * @throws RoleNotFoundException if the user has no roles.
-     */
-    public List<RoleEnum> findUserRolesByUsername(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() ->
-                        new UserNotFoundException(String.format(USER_NOT_FOUND_ERROR_MESSAGE, username)));
-
-        List<Role> userRoles = user.getRole();
-        if (userRoles == null || userRoles.isEmpty()) {
-            throw new RoleNotFoundException("Error. Role not found.");
-        }
-
-        return userRoles.stream()
-                .map(Role::getName)
-                .toList();
-    }
 }
\ No newline at end of file
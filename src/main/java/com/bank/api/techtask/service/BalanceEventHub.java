@@ -0,0 +1,290 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
+import com.bank.api.techtask.domain.response.BalanceResponse;
+import com.bank.api.techtask.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pushes balance changes to clients over server-sent events, so they do not have to poll.
+ * <p>
+ * Every open stream is an asynchronous request, so an idle connection holds no thread. Committed
+ * {@link BalanceChangedEvent}s are fanned out to the streams of the changed accounts by appending to
+ * a small per-stream buffer; a shared pool of sender threads writes the buffers to the clients, at
+ * most one thread per stream at a time.
+ * <p>
+ * A client that does not read fast enough fills its buffer and is disconnected rather than allowed
+ * to hold memory; it reconnects and starts again from its current balance. A write to a client that
+ * stopped reading holds its sender thread until the connector's write timeout, so there are a few
+ * sender threads rather than one. A periodic heartbeat keeps proxies from closing idle streams and
+ * detects clients that are gone.
+ */
+@Component
+public class BalanceEventHub {
+
+    public static final String BALANCE_EVENT = "balance";
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceEventHub.class);
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ExecutorService senders;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final int maxConnections;
+    private final Counter evictedCounter;
+
+    /**
+     * Constructs a new BalanceEventHub.
+     *
+     * @param bufferSize the number of events a stream may have waiting before it is disconnected
+     * @param senderThreads the number of threads writing events to the clients
+     * @param timeout how long a stream stays open before the client has to reconnect
+     * @param maxConnections the maximum number of open streams on this instance
+     * @param meterRegistry the registry for the connection gauge and the eviction counter
+     */
+    @Autowired
+    public BalanceEventHub(@Value("${events.stream.buffer-size:32}") int bufferSize,
+                           @Value("${events.stream.sender-threads:4}") int senderThreads,
+                           @Value("${events.stream.timeout:30m}") Duration timeout,
+                           @Value("${events.stream.max-connections:50000}") int maxConnections,
+                           MeterRegistry meterRegistry) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads));
+        this.timeoutMillis = timeout.toMillis();
+        this.maxConnections = maxConnections;
+        this.evictedCounter = Counter.builder("bank.events.evicted")
+                .description("Event streams closed because the client did not keep up")
+                .register(meterRegistry);
+        Gauge.builder("bank.events.connections", connections, AtomicInteger::get)
+                .description("Open balance event streams")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscriptions.values().forEach(streams -> streams.forEach(subscription -> close(subscription, true)));
+    }
+
+    /**
+     * Opens a stream of the balance changes of an account. The current balance is sent first, so
+     * the client does not need a separate request for it.
+     *
+     * @param accountId the account
+     * @param currentBalance reads the current balance, after the stream is registered so no change is missed
+     * @return the emitter of the stream
+     * @throws TooManyRequestsException if this instance already holds the maximum number of streams
+     */
+    public SseEmitter subscribe(long accountId, Supplier<BalanceResponse> currentBalance) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscription subscription = add(accountId, emitter);
+        BalanceResponse balance;
+        try {
+            balance = currentBalance.get();
+        } catch (RuntimeException e) {
+            remove(subscription);
+            throw e;
+        }
+        offer(subscription, balance);
+        return emitter;
+    }
+
+    /**
+     * Sends the new balances to the streams of the changed accounts once the transaction has committed.
+     *
+     * @param event the event with the new balances
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        Instant asOf = Instant.now();
+        for (AccountBalance balance : event.getBalances()) {
+            Set<Subscription> streams = subscriptions.get(balance.accountId());
+            if (streams == null) {
+                continue;
+            }
+            BalanceResponse response = new BalanceResponse(balance.accountId(), balance.balance(), asOf);
+            for (Subscription subscription : streams) {
+                offer(subscription, response);
+            }
+        }
+    }
+
+    /**
+     * Sends a comment to every stream that has nothing waiting.
+     */
+    @Scheduled(fixedDelayString = "${events.stream.heartbeat-interval-ms:15000}",
+            initialDelayString = "${events.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscription> streams : subscriptions.values()) {
+            for (Subscription subscription : streams) {
+                boolean idle;
+                synchronized (subscription) {
+                    idle = subscription.buffer.isEmpty();
+                }
+                if (idle) {
+                    offer(subscription, HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of open streams.
+     *
+     * @return the number of streams
+     */
+    public int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Creates the emitter of a new stream.
+     *
+     * @param timeoutMillis how long the stream stays open
+     * @return the emitter
+     */
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private Subscription add(long accountId, SseEmitter emitter) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new TooManyRequestsException("Too many open event streams", 5);
+        }
+        Subscription subscription = new Subscription(accountId, emitter);
+        // compute and computeIfPresent lock the account's entry, so a set emptied by remove is never added to
+        subscriptions.compute(accountId, (id, streams) -> {
+            Set<Subscription> current = streams == null ? ConcurrentHashMap.newKeySet() : streams;
+            current.add(subscription);
+            return current;
+        });
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> close(subscription, false));
+        emitter.onError(error -> remove(subscription));
+        return subscription;
+    }
+
+    private void offer(Subscription subscription, Object event) {
+        synchronized (subscription) {
+            if (subscription.closed) {
+                return;
+            }
+            if (subscription.buffer.size() >= bufferSize) {
+                evictedCounter.increment();
+                logger.debug("Disconnecting slow event stream of account {}", subscription.accountId);
+                close(subscription, true);
+                return;
+            }
+            subscription.buffer.add(event);
+        }
+        if (subscription.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> flush(subscription));
+        }
+    }
+
+    private void flush(Subscription subscription) {
+        while (true) {
+            Object event;
+            synchronized (subscription) {
+                event = subscription.closed ? null : subscription.buffer.poll();
+                if (event == null) {
+                    subscription.scheduled.set(false);
+                    return;
+                }
+            }
+            try {
+                subscription.emitter.send(toSseEvent(event));
+            } catch (IOException | IllegalStateException e) {
+                // the client is gone, or the stream was completed meanwhile
+                close(subscription, false);
+                synchronized (subscription) {
+                    subscription.scheduled.set(false);
+                }
+                return;
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSseEvent(Object event) {
+        if (event == HEARTBEAT) {
+            return SseEmitter.event().comment("heartbeat");
+        }
+        return SseEmitter.event()
+                .id(Long.toString(eventIds.incrementAndGet()))
+                .name(BALANCE_EVENT)
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    private void close(Subscription subscription, boolean complete) {
+        synchronized (subscription) {
+            if (subscription.closed) {
+                return;
+            }
+            subscription.closed = true;
+            subscription.buffer.clear();
+        }
+        remove(subscription);
+        if (complete) {
+            subscription.emitter.complete();
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        synchronized (subscription) {
+            subscription.closed = true;
+        }
+        boolean[] removed = new boolean[1];
+        subscriptions.computeIfPresent(subscription.accountId, (id, streams) -> {
+            removed[0] = streams.remove(subscription);
+            return streams.isEmpty() ? null : streams;
+        });
+        if (removed[0]) {
+            connections.decrementAndGet();
+        }
+    }
+
+    private static final class Subscription {
+        private final long accountId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Object> buffer = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private boolean closed;
+
+        private Subscription(long accountId, SseEmitter emitter) {
+            this.accountId = accountId;
+            this.emitter = emitter;
+        }
+    }
+}
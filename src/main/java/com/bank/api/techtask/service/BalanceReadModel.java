@@ -0,0 +1,262 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
+import com.bank.api.techtask.domain.response.BalanceResponse;
+import com.bank.api.techtask.exception.UserNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Read side projection of account balances, so balance queries do not touch the {@code account} table
+ * that transfers contend on.
+ * <p>
+ * Balances are kept in a {@link BalanceTable} of primitive longs. The table is loaded in full from the
+ * database at startup, with the id range split between several threads, and is then fed by the
+ * {@link BalanceChangedEvent}s of committed transfers, accruals and deposits. Changes made by other
+ * instances are caught up with periodically by reading only the accounts whose {@code updated_at} lies
+ * after the previous refresh, less {@code change-lag} for transactions that were still open then and
+ * for clock skew, so a balance is at most one refresh interval behind. After every complete refresh the
+ * whole table counts as current as of its start. Balances are ordered by the version of their account
+ * row, not by when they arrive,
+ * so a commit whose event is applied after a later commit's does not bring back the older balance.
+ * Each balance is served with its freshness watermark, and a balance older than
+ * the configured maximum staleness, or unknown to the table, is read from the database instead.
+ */
+@Component
+public class BalanceReadModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceReadModel.class);
+
+    private static final String SELECT_ID_RANGE = "SELECT MIN(id), MAX(id) FROM account";
+    private static final String SELECT_BATCH = "SELECT id, balance, version FROM account WHERE id > ? AND id <= ? "
+            + "ORDER BY id LIMIT ?";
+    private static final String SELECT_BALANCE = "SELECT balance, version FROM account WHERE id = ?";
+    private static final String SELECT_CHANGED = "SELECT id, balance, version FROM account WHERE updated_at > ?";
+    private static final String SELECT_NOW = "SELECT CURRENT_TIMESTAMP";
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BalanceTable table = new BalanceTable(1024);
+    private final ExecutorService loadingPool;
+    private final int loadThreads;
+    private final long maxStalenessMillis;
+    private final long changeLagMillis;
+    private final Counter memoryReads;
+    private final Counter databaseReads;
+    /** Database time of the start of the last load or refresh, null until the first load has completed. */
+    private volatile Timestamp changesSince;
+    /** Epoch millisecond all balances in the table are known to be current as of. */
+    private volatile long syncedAsOf = Long.MIN_VALUE;
+
+    @Autowired
+    public BalanceReadModel(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                            @Value("${balances.read-model.load-threads:4}") int loadThreads,
+                            @Value("${balances.read-model.max-staleness:60s}") Duration maxStaleness,
+                            @Value("${balances.read-model.change-lag:10s}") Duration changeLag) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loadThreads = Math.max(1, loadThreads);
+        this.loadingPool = Executors.newFixedThreadPool(this.loadThreads);
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.changeLagMillis = changeLag.toMillis();
+        this.memoryReads = readCounter(meterRegistry, "memory");
+        this.databaseReads = readCounter(meterRegistry, "database");
+        Gauge.builder("bank.balances.accounts", table, BalanceTable::size)
+                .description("Accounts held by the balance read model")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadingPool.shutdownNow();
+    }
+
+    /**
+     * Loads all balances, splitting the account id range between the loading threads. Each thread walks
+     * its range in ID order, in batches, and a loaded balance replaces only an entry of an older version.
+     *
+     * @return the number of balances loaded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int load() {
+        long asOf = System.currentTimeMillis();
+        Timestamp now = jdbcTemplate.queryForObject(SELECT_NOW, Timestamp.class);
+        long[] bounds = jdbcTemplate.queryForObject(SELECT_ID_RANGE,
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+        if (bounds == null || bounds[1] == 0) {
+            synced(now, asOf);
+            return 0;
+        }
+        long first = bounds[0] - 1;
+        long last = bounds[1];
+        long step = Math.max(1, (last - first + loadThreads - 1) / loadThreads);
+        List<Callable<Integer>> ranges = new ArrayList<>(loadThreads);
+        for (long from = first; from < last; from += step) {
+            long afterId = from;
+            long toId = Math.min(from + step, last);
+            ranges.add(() -> loadRange(afterId, toId, asOf));
+        }
+
+        int loaded = 0;
+        try {
+            for (Future<Integer> range : loadingPool.invokeAll(ranges)) {
+                loaded += range.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading balances", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Loading balances failed", e.getCause());
+        }
+        synced(now, asOf);
+        logger.debug("Loaded {} balances in {} ms", loaded, System.currentTimeMillis() - asOf);
+        return loaded;
+    }
+
+    /**
+     * Picks up the balances changed since the previous refresh, so changes made by other instances are
+     * seen. Until a load has completed, loads all balances instead.
+     *
+     * @return the number of balances read
+     */
+    @Scheduled(fixedDelayString = "${balances.read-model.refresh-interval-ms:5000}",
+            initialDelayString = "${balances.read-model.refresh-interval-ms:5000}")
+    public int refresh() {
+        try {
+            return changesSince == null ? load() : loadChanges();
+        } catch (RuntimeException e) {
+            logger.warn("Refreshing balances failed, serving older balances: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private int loadChanges() {
+        long asOf = System.currentTimeMillis();
+        Timestamp now = jdbcTemplate.queryForObject(SELECT_NOW, Timestamp.class);
+        Timestamp since = new Timestamp(changesSince.getTime() - changeLagMillis);
+        int[] read = {0};
+        jdbcTemplate.query(SELECT_CHANGED, rs -> {
+            table.put(rs.getLong(1), toCents(rs.getBigDecimal(2)), rs.getLong(3), asOf);
+            read[0]++;
+        }, since);
+        synced(now, asOf);
+        return read[0];
+    }
+
+    private void synced(Timestamp now, long asOf) {
+        changesSince = now;
+        syncedAsOf = Math.max(syncedAsOf, asOf);
+    }
+
+    /**
+     * Applies the new balances once their transaction has committed.
+     *
+     * @param event the event with the new balances.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        long asOf = System.currentTimeMillis();
+        for (AccountBalance balance : event.getBalances()) {
+            table.put(balance.accountId(), toCents(balance.balance()), balance.version(), asOf);
+        }
+    }
+
+    /**
+     * Returns the balance of an account from memory, or from the database if the balance held in memory
+     * is missing or older than the maximum staleness. A balance held in memory is current as of the
+     * later of when it was put and when the last refresh started.
+     *
+     * @param accountId the account
+     * @return the balance and its freshness watermark
+     * @throws UserNotFoundException if the account does not exist
+     */
+    public BalanceResponse getBalance(long accountId) {
+        long[] entry = new long[2];
+        table.get(accountId, entry);
+        long entryAsOf = Math.max(entry[1], syncedAsOf);
+        if (entry[0] != BalanceTable.MISSING && System.currentTimeMillis() - entryAsOf <= maxStalenessMillis) {
+            memoryReads.increment();
+            return new BalanceResponse(accountId, BigDecimal.valueOf(entry[0], 2), Instant.ofEpochMilli(entryAsOf));
+        }
+
+        databaseReads.increment();
+        long asOf = System.currentTimeMillis();
+        List<AccountBalance> balances = jdbcTemplate.query(SELECT_BALANCE,
+                (rs, rowNum) -> new AccountBalance(accountId, rs.getBigDecimal(1), rs.getLong(2)), accountId);
+        if (balances.isEmpty()) {
+            throw new UserNotFoundException("Account not found with id " + accountId);
+        }
+        AccountBalance balance = balances.get(0);
+        table.put(accountId, toCents(balance.balance()), balance.version(), asOf);
+        return new BalanceResponse(accountId, balance.balance(), Instant.ofEpochMilli(asOf));
+    }
+
+    private int loadRange(long afterId, long toId, long asOf) {
+        long[] ids = new long[LOAD_BATCH_SIZE];
+        long[] balances = new long[LOAD_BATCH_SIZE];
+        long[] versions = new long[LOAD_BATCH_SIZE];
+        int loaded = 0;
+        int count;
+        long lastId = afterId;
+        do {
+            int[] read = {0};
+            jdbcTemplate.query(SELECT_BATCH, rs -> {
+                ids[read[0]] = rs.getLong(1);
+                balances[read[0]] = toCents(rs.getBigDecimal(2));
+                versions[read[0]] = rs.getLong(3);
+                read[0]++;
+            }, lastId, toId, LOAD_BATCH_SIZE);
+            count = read[0];
+            if (count > 0) {
+                table.putAll(ids, balances, versions, count, asOf);
+                lastId = ids[count - 1];
+                loaded += count;
+            }
+        } while (count == LOAD_BATCH_SIZE);
+        return loaded;
+    }
+
+    /**
+     * Converts a balance to cents, the way the {@code NUMERIC(19,2)} column rounds it. A balance that
+     * does not fit in a long is stored as missing, so it is always read from the database.
+     */
+    private static long toCents(BigDecimal balance) {
+        try {
+            return balance.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return BalanceTable.MISSING;
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("bank.balances.reads")
+                .description("Balance queries by where they were served from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,187 @@
+package com.bank.api.techtask.service;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open addressing hash table from account id to balance in cents, kept in a single {@code long[]}
+ * of (account id, balance, version, as of) quadruples so that an entry costs 32 bytes and no objects.
+ * <p>
+ * Every entry carries the version of the account row its balance was read with and the epoch
+ * millisecond the balance is known to be current as of. A put replaces the balance only if its version
+ * is higher, and with the same version only moves the as of forward, so a balance read from the database
+ * before a commit, or published by a commit that was overtaken, never overwrites a newer one whatever
+ * the order the puts arrive in. Reads are lock free in the common case: they use an
+ * optimistic {@link StampedLock} stamp and retry under the read lock only if a writer got in between.
+ * Account ids start at 1, so 0 marks a free slot.
+ */
+final class BalanceTable {
+
+    /** Written by {@link #get} for an account that is not in the table. */
+    static final long MISSING = Long.MIN_VALUE;
+
+    private static final int SLOT = 4;
+    private static final int BALANCE = 1;
+    private static final int VERSION = 2;
+    private static final int AS_OF = 3;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] slots;
+    private int size;
+
+    BalanceTable(int expectedSize) {
+        slots = new long[capacityFor(expectedSize) * SLOT];
+    }
+
+    /**
+     * Returns the balance and the as of millis of an account in one consistent read.
+     *
+     * @param accountId the account
+     * @param result receives the balance in cents at 0 and the as of millis at 1, or {@link #MISSING} at both
+     */
+    void get(long accountId, long[] result) {
+        long stamp = lock.tryOptimisticRead();
+        read(slots, accountId, result);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                read(slots, accountId, result);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Sets the balance of an account unless the table already holds a newer one.
+     *
+     * @param accountId the account
+     * @param balanceCents the balance in cents
+     * @param version the version of the account row the balance was read with
+     * @param asOfMillis when the balance was current
+     */
+    void put(long accountId, long balanceCents, long version, long asOfMillis) {
+        long stamp = lock.writeLock();
+        try {
+            putLocked(accountId, balanceCents, version, asOfMillis);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Sets the balances of several accounts under one lock, unless the table already holds newer ones.
+     *
+     * @param accountIds the accounts
+     * @param balancesCents the balances in cents, by the same index
+     * @param versions the versions of the account rows, by the same index
+     * @param count the number of accounts to set
+     * @param asOfMillis when the balances were current
+     */
+    void putAll(long[] accountIds, long[] balancesCents, long[] versions, int count, long asOfMillis) {
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < count; i++) {
+                putLocked(accountIds[i], balancesCents[i], versions[i], asOfMillis);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void putLocked(long accountId, long balanceCents, long version, long asOfMillis) {
+        if (accountId <= 0) {
+            throw new IllegalArgumentException("Account id must be positive: " + accountId);
+        }
+        int index = indexOf(slots, accountId);
+        if (slots[index] == accountId) {
+            if (slots[index + VERSION] < version) {
+                slots[index + BALANCE] = balanceCents;
+                slots[index + VERSION] = version;
+                slots[index + AS_OF] = asOfMillis;
+            } else if (slots[index + VERSION] == version && slots[index + AS_OF] < asOfMillis) {
+                slots[index + AS_OF] = asOfMillis;
+            }
+            return;
+        }
+        if ((size + 1) * 2 > slots.length / SLOT) {
+            resize();
+            index = indexOf(slots, accountId);
+        }
+        slots[index] = accountId;
+        slots[index + BALANCE] = balanceCents;
+        slots[index + VERSION] = version;
+        slots[index + AS_OF] = asOfMillis;
+        size++;
+    }
+
+    private void resize() {
+        long[] previous = slots;
+        long[] resized = new long[previous.length * 2];
+        for (int i = 0; i < previous.length; i += SLOT) {
+            if (previous[i] != 0) {
+                int index = indexOf(resized, previous[i]);
+                System.arraycopy(previous, i, resized, index, SLOT);
+            }
+        }
+        slots = resized;
+    }
+
+    /**
+     * Reads an entry. Under an optimistic stamp the array may be changing, so the probe is bounded by the
+     * table size and the caller validates the stamp before using the result.
+     */
+    private static void read(long[] table, long accountId, long[] result) {
+        int mask = table.length / SLOT - 1;
+        int bucket = hash(accountId) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            int index = bucket * SLOT;
+            long key = table[index];
+            if (key == accountId) {
+                result[0] = table[index + BALANCE];
+                result[1] = table[index + AS_OF];
+                return;
+            }
+            if (key == 0) {
+                break;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        result[0] = MISSING;
+        result[1] = MISSING;
+    }
+
+    /**
+     * Returns the index of the slot holding the account, or of the free slot where it belongs.
+     * The table is never more than half full, so a free slot always exists.
+     */
+    private static int indexOf(long[] table, long accountId) {
+        int mask = table.length / SLOT - 1;
+        int bucket = hash(accountId) & mask;
+        while (table[bucket * SLOT] != 0 && table[bucket * SLOT] != accountId) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket * SLOT;
+    }
+
+    private static int hash(long accountId) {
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
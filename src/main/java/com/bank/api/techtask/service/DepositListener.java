@@ -0,0 +1,84 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.event.DepositReceived;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumes inbound deposit messages in batches of one poll and credits them through {@link DepositService}.
+ * <p>
+ * Offsets are acknowledged manually, only after the batch transaction has committed. If the batch fails,
+ * nothing is acknowledged and the container redelivers the whole poll; the deposits already credited
+ * before a crash between the commit and the acknowledgement are dropped as duplicates by their id.
+ * Malformed messages are logged and skipped, as retrying them cannot succeed.
+ */
+@Component
+@ConditionalOnProperty(name = "deposits.consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class DepositListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DepositListener.class);
+
+    private final DepositService depositService;
+    private final ObjectMapper objectMapper;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public DepositListener(DepositService depositService, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.depositService = depositService;
+        this.objectMapper = objectMapper;
+        this.rejectedCounter = DepositService.depositCounter(meterRegistry, DepositService.OUTCOME_REJECTED);
+    }
+
+    /**
+     * Credits the deposits of one poll and acknowledges their offsets.
+     *
+     * @param records the records of the poll
+     * @param acknowledgment the acknowledgment of the whole poll
+     */
+    @KafkaListener(id = "deposits", topics = "${deposits.topic:bank.deposits}",
+            groupId = "${deposits.consumer.group-id:bank-deposits}",
+            concurrency = "${deposits.consumer.concurrency:3}",
+            containerFactory = "depositListenerContainerFactory")
+    public void onDeposits(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        List<DepositReceived> deposits = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            DepositReceived deposit = parse(record);
+            if (deposit != null) {
+                deposits.add(deposit);
+            }
+        }
+        depositService.credit(deposits);
+        acknowledgment.acknowledge();
+    }
+
+    private DepositReceived parse(ConsumerRecord<String, String> record) {
+        DepositReceived deposit = null;
+        try {
+            if (record.value() != null) {
+                deposit = objectMapper.readValue(record.value(), DepositReceived.class);
+            }
+        } catch (JsonProcessingException e) {
+            logger.debug("Cannot parse deposit message", e);
+        }
+        if (deposit == null || !DepositService.isValid(deposit)) {
+            logger.warn("Skipped malformed deposit message at {}-{}@{}", record.topic(), record.partition(),
+                    record.offset());
+            rejectedCounter.increment();
+            return null;
+        }
+        return deposit;
+    }
+}
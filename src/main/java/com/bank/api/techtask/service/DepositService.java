@@ -0,0 +1,289 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
+import com.bank.api.techtask.domain.event.DepositReceived;
+import com.bank.api.techtask.domain.event.DepositsCredited;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Credits external deposits to account balances in bulk.
+ * <p>
+ * A batch is applied in one transaction. Each message id is first claimed in {@code processed_deposit},
+ * and messages whose id is already there are dropped, so a replayed message is never credited twice.
+ * The remaining deposits are summed per account and every account is credited with one statement of a
+ * single JDBC batch, in account ID order so that concurrent batches lock rows in the same order.
+ * The resulting balances are read back and published as a {@link BalanceChangedEvent}.
+ * Deposits to an unknown account, or that would take a balance past what {@code NUMERIC(19,2)} holds,
+ * are released from {@code processed_deposit} and written to {@code deposit_dead_letter} instead, so
+ * they can be replayed once the account is sorted out. Should the database still reject a batch as
+ * invalid, its deposits are retried one per transaction and the ones rejected again are dead-lettered,
+ * so a single bad message never blocks the deposits behind it. Any other failure is left to the caller
+ * to retry.
+ */
+@Service
+public class DepositService {
+
+    public static final String OUTCOME_CREDITED = "credited";
+    public static final String OUTCOME_DUPLICATE = "duplicate";
+    public static final String OUTCOME_REJECTED = "rejected";
+
+    private static final Logger logger = LoggerFactory.getLogger(DepositService.class);
+
+    /** The largest balance the {@code NUMERIC(19,2)} column holds. */
+    private static final String MAX_BALANCE = "99999999999999999.99";
+    private static final String CLAIM_DEPOSIT = "INSERT INTO processed_deposit (message_id, account_id, amount, "
+            + "processed_at) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String CREDIT_ACCOUNT = "UPDATE account SET balance = balance + ?, version = version + 1, "
+            + "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND balance + ? <= " + MAX_BALANCE;
+    private static final String RELEASE_DEPOSIT = "DELETE FROM processed_deposit WHERE message_id = ?";
+    private static final String DEAD_LETTER_DEPOSIT = "INSERT INTO deposit_dead_letter (message_id, account_id, "
+            + "amount, reason, received_at) VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String REASON_UNKNOWN_ACCOUNT = "unknown account";
+    private static final String REASON_BALANCE_OVERFLOW = "balance overflow";
+    private static final String REASON_REJECTED = "rejected by database";
+    private static final String SELECT_BALANCES = "SELECT id, balance, version FROM account WHERE id IN (:ids)";
+    private static final String SELECT_EXISTING = "SELECT id FROM account WHERE id IN (:ids)";
+    private static final int MAX_INTEGER_DIGITS = 17;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter creditedCounter;
+    private final Counter duplicateCounter;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public DepositService(JdbcTemplate jdbcTemplate, OutboxService outboxService,
+                          ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.creditedCounter = depositCounter(meterRegistry, OUTCOME_CREDITED);
+        this.duplicateCounter = depositCounter(meterRegistry, OUTCOME_DUPLICATE);
+        this.rejectedCounter = depositCounter(meterRegistry, OUTCOME_REJECTED);
+    }
+
+    /**
+     * Registers the counter of deposits with the given outcome.
+     *
+     * @param meterRegistry the registry
+     * @param outcome the outcome tag
+     * @return the counter
+     */
+    public static Counter depositCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("bank.deposits")
+                .description("Inbound deposits by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks that a deposit can be credited: it has an id that fits the deduplication table and a
+     * positive amount in whole cents that fits a {@code NUMERIC(19,2)} column.
+     *
+     * @param deposit the deposit
+     * @return true if the deposit is well formed
+     */
+    public static boolean isValid(DepositReceived deposit) {
+        if (deposit.messageId() == null || deposit.messageId().isBlank() || deposit.messageId().length() > 100
+                || deposit.amount() == null || deposit.amount().signum() <= 0) {
+            return false;
+        }
+        BigDecimal amount = deposit.amount().stripTrailingZeros();
+        return amount.scale() <= 2 && amount.precision() - amount.scale() <= MAX_INTEGER_DIGITS;
+    }
+
+    /**
+     * Credits a batch of deposits in one transaction. Deposits to an unknown account or that would
+     * overflow the balance are rejected and dead-lettered; a replay of a dead-lettered deposit is counted
+     * as a duplicate. If the database rejects the batch as invalid, the deposits are credited one by one
+     * and those it rejects again are dead-lettered.
+     *
+     * @param deposits the deposits of one poll, each {@link #isValid valid}
+     * @return the number of deposits credited
+     * @throws org.springframework.dao.DataAccessException if the batch failed for any other reason, such
+     *         as a lost connection, in which case nothing was credited
+     */
+    public int credit(List<DepositReceived> deposits) {
+        if (deposits.isEmpty()) {
+            return 0;
+        }
+        BatchResult result;
+        try {
+            result = transactionTemplate.execute(status -> creditBatch(deposits));
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Batch of {} deposit(s) rejected by the database, crediting them one by one: {}",
+                    deposits.size(), e.getMessage());
+            result = creditOneByOne(deposits);
+        }
+        creditedCounter.increment(result.credited());
+        duplicateCounter.increment(result.duplicates());
+        rejectedCounter.increment(result.rejected());
+        return result.credited();
+    }
+
+    private BatchResult creditOneByOne(List<DepositReceived> deposits) {
+        int credited = 0;
+        int duplicates = 0;
+        int rejected = 0;
+        for (DepositReceived deposit : deposits) {
+            BatchResult result;
+            try {
+                result = transactionTemplate.execute(status -> creditBatch(List.of(deposit)));
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Dead-lettered deposit {} rejected by the database: {}", deposit.messageId(),
+                        e.getMessage());
+                Timestamp now = Timestamp.from(Instant.now());
+                int inserted = transactionTemplate.execute(status ->
+                        deadLetter(List.of(deposit), REASON_REJECTED, now));
+                result = new BatchResult(0, 1 - inserted, inserted);
+            }
+            credited += result.credited();
+            duplicates += result.duplicates();
+            rejected += result.rejected();
+        }
+        return new BatchResult(credited, duplicates, rejected);
+    }
+
+    private BatchResult creditBatch(List<DepositReceived> deposits) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> claims = new ArrayList<>(deposits.size());
+        for (DepositReceived deposit : deposits) {
+            claims.add(new Object[] {deposit.messageId(), deposit.accountId(), deposit.amount(), now});
+        }
+        int[] claimed = jdbcTemplate.batchUpdate(CLAIM_DEPOSIT, claims);
+
+        Map<Long, AccountCredit> credits = new TreeMap<>();
+        int duplicates = 0;
+        for (int i = 0; i < deposits.size(); i++) {
+            if (claimed[i] == 0) {
+                duplicates++;
+                continue;
+            }
+            DepositReceived deposit = deposits.get(i);
+            credits.computeIfAbsent(deposit.accountId(), accountId -> new AccountCredit())
+                    .add(deposit);
+        }
+        if (credits.isEmpty()) {
+            return new BatchResult(0, duplicates, 0);
+        }
+
+        List<Object[]> updates = new ArrayList<>(credits.size());
+        for (Map.Entry<Long, AccountCredit> entry : credits.entrySet()) {
+            BigDecimal amount = entry.getValue().amount;
+            updates.add(new Object[] {amount, entry.getKey(), amount});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(CREDIT_ACCOUNT, updates);
+
+        List<DepositsCredited> messages = new ArrayList<>(credits.size());
+        Instant occurredAt = now.toInstant();
+        Map<Long, AccountCredit> failed = new TreeMap<>();
+        int credited = 0;
+        int i = 0;
+        for (Map.Entry<Long, AccountCredit> entry : credits.entrySet()) {
+            AccountCredit credit = entry.getValue();
+            if (updated[i++] == 0) {
+                failed.put(entry.getKey(), credit);
+            } else {
+                messages.add(new DepositsCredited(entry.getKey(), credit.amount, credit.deposits.size(),
+                        occurredAt));
+                credited += credit.deposits.size();
+            }
+        }
+        int notCredited = 0;
+        int rejected = 0;
+        if (!failed.isEmpty()) {
+            List<Long> existing = namedParameterJdbcTemplate.queryForList(SELECT_EXISTING,
+                    new MapSqlParameterSource("ids", failed.keySet()), Long.class);
+            List<DepositReceived> unknown = new ArrayList<>();
+            List<DepositReceived> overflowing = new ArrayList<>();
+            for (Map.Entry<Long, AccountCredit> entry : failed.entrySet()) {
+                AccountCredit credit = entry.getValue();
+                boolean exists = existing.contains(entry.getKey());
+                logger.warn("Dead-lettered {} deposit(s) of {} to {} account {}", credit.deposits.size(),
+                        credit.amount, exists ? "overflowing" : "unknown", entry.getKey());
+                (exists ? overflowing : unknown).addAll(credit.deposits);
+                notCredited += credit.deposits.size();
+            }
+            rejected = deadLetter(unknown, REASON_UNKNOWN_ACCOUNT, now)
+                    + deadLetter(overflowing, REASON_BALANCE_OVERFLOW, now);
+        }
+        outboxService.recordDeposits(messages);
+        publishBalances(messages);
+        return new BatchResult(credited, duplicates + notCredited - rejected, rejected);
+    }
+
+    /**
+     * Releases the claims of deposits that cannot be credited and moves them to the dead letter table.
+     *
+     * @return the number of deposits dead-lettered now, not counting those dead-lettered before
+     */
+    private int deadLetter(List<DepositReceived> deposits, String reason, Timestamp now) {
+        if (deposits.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> releases = new ArrayList<>(deposits.size());
+        List<Object[]> deadLetters = new ArrayList<>(deposits.size());
+        for (DepositReceived deposit : deposits) {
+            releases.add(new Object[] {deposit.messageId()});
+            deadLetters.add(new Object[] {deposit.messageId(), deposit.accountId(), deposit.amount(),
+                    reason, now});
+        }
+        jdbcTemplate.batchUpdate(RELEASE_DEPOSIT, releases);
+        int inserted = 0;
+        for (int count : jdbcTemplate.batchUpdate(DEAD_LETTER_DEPOSIT, deadLetters)) {
+            inserted += count;
+        }
+        return inserted;
+    }
+
+    private void publishBalances(List<DepositsCredited> credits) {
+        if (credits.isEmpty()) {
+            return;
+        }
+        List<Long> accountIds = credits.stream().map(DepositsCredited::accountId).toList();
+        List<AccountBalance> balances = namedParameterJdbcTemplate.query(SELECT_BALANCES,
+                new MapSqlParameterSource("ids", accountIds),
+                (rs, rowNum) -> new AccountBalance(rs.getLong(1), rs.getBigDecimal(2), rs.getLong(3)));
+        eventPublisher.publishEvent(new BalanceChangedEvent(balances));
+    }
+
+    private static final class AccountCredit {
+        private final List<DepositReceived> deposits = new ArrayList<>();
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        private void add(DepositReceived deposit) {
+            amount = amount.add(deposit.amount());
+            deposits.add(deposit);
+        }
+    }
+
+    private record BatchResult(int credited, int duplicates, int rejected) {
+    }
+}
@@ -1,11 +1,17 @@
 package com.bank.api.techtask.service;
 
 import com.bank.api.techtask.domain.model.User;
+import com.bank.api.techtask.jfr.TokenVerificationEvent;
+import com.bank.api.techtask.trace.RequestTrace;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -14,6 +20,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -25,6 +32,20 @@ public class JwtService {
     @Value("${token.signing.key}")
     String jwtSigningKey;
 
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
+
+    /**
+     * Constructs a new JwtService.
+     *
+     * @param meterRegistry the registry for the token verification timers.
+     */
+    @Autowired
+    public JwtService(MeterRegistry meterRegistry) {
+        this.validTokenTimer = verifyTimer(meterRegistry, "valid");
+        this.invalidTokenTimer = verifyTimer(meterRegistry, "invalid");
+    }
+
     /**
      * Extracts the username from a JWT token.
      *
@@ -47,6 +68,9 @@ public class JwtService {
             claims.put("id", customUserDetails.getId());
             claims.put("email", customUserDetails.getEmail());
             claims.put("role", customUserDetails.getRole());
+            if (customUserDetails.getAccount() != null) {
+                claims.put("accountId", customUserDetails.getAccount().getId());
+            }
         }
         return generateToken(claims, userDetails);
     }
@@ -117,11 +141,37 @@ public class JwtService {
      * @return the claims.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        RequestTrace.recordTokenParse();
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean valid = false;
+        try {
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            validTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            valid = true;
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setValid(valid);
+                event.commit();
+            }
+        }
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("bank.jwt.verify")
+                .description("Time spent parsing and verifying the signature of a JWT")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     /**
@@ -138,4 +188,15 @@ public class JwtService {
         Claims claims = extractAllClaims(token);
         return claims.get("id", Long.class);
     }
+
+    /**
+     * Extracts the ID of the user's account from a JWT token.
+     *
+     * @param token the token to extract the account ID from.
+     * @return the account ID, or null for a token issued before the claim was added.
+     */
+    public Long extractAccountId(String token) {
+        Claims claims = extractAllClaims(token);
+        return claims.get("accountId", Long.class);
+    }
 }
@@ -0,0 +1,171 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.UserNameMatch;
+import com.bank.api.techtask.domain.event.UserDataChangedEvent;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory {@link UserNameSearch} for databases without {@code pg_trgm}, such as the H2 test
+ * database. Full names are split into trigrams the way {@code pg_trgm} does it and kept in an
+ * inverted index from trigram to user ids, which is loaded at startup and refreshed from
+ * {@link UserDataChangedEvent}s. The whole index lives on the heap, so this engine is meant
+ * for tests and small installations only.
+ */
+@Component
+@ConditionalOnProperty(name = "users.search.fuzzy.engine", havingValue = "ngram")
+public class NgramUserNameSearch implements UserNameSearch {
+
+    /** Same default as {@code pg_trgm.word_similarity_threshold}. */
+    private static final double SIMILARITY_THRESHOLD = 0.6;
+
+    private static final String SELECT_ALL = "SELECT id, username, full_name FROM users";
+    private static final String SELECT_BY_IDS = SELECT_ALL + " WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NgramUserNameSearch(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Indexes all users.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        jdbcTemplate.query(SELECT_ALL, rs -> {
+            index(toEntry(rs));
+        });
+    }
+
+    /**
+     * Re-reads the changed users once their transaction has committed.
+     *
+     * @param event the event with the ids of the changed users.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        Set<Long> missing = new HashSet<>(event.getUserIds());
+        if (missing.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.query(SELECT_BY_IDS, new MapSqlParameterSource("ids", missing), rs -> {
+            Entry entry = toEntry(rs);
+            missing.remove(entry.id());
+            index(entry);
+        });
+        missing.forEach(this::remove);
+    }
+
+    @Override
+    public List<UserNameMatch> search(String query, int limit) {
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        Set<String> queryTrigrams = trigrams(lowerQuery);
+        if (queryTrigrams.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> hits = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (Long id : postings.getOrDefault(trigram, Set.of())) {
+                hits.merge(id, 1, Integer::sum);
+            }
+        }
+
+        List<UserNameMatch> matches = new ArrayList<>();
+        hits.forEach((id, shared) -> {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return;
+            }
+            double score = (double) shared / queryTrigrams.size();
+            if (score >= SIMILARITY_THRESHOLD || entry.lowerFullName().contains(lowerQuery)) {
+                matches.add(new UserNameMatch(entry.id(), entry.username(), entry.fullName(), score));
+            }
+        });
+        return matches.stream()
+                .sorted(Comparator.comparingDouble(UserNameMatch::getScore).reversed()
+                        .thenComparing(UserNameMatch::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    private synchronized void index(Entry entry) {
+        remove(entry.id());
+        entries.put(entry.id(), entry);
+        for (String trigram : entry.trigrams()) {
+            postings.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        }
+    }
+
+    private synchronized void remove(Long id) {
+        Entry previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String trigram : previous.trigrams()) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static Entry toEntry(ResultSet rs) throws SQLException {
+        String fullName = rs.getString("full_name");
+        String lowerFullName = fullName == null ? "" : fullName.toLowerCase(Locale.ROOT);
+        return new Entry(rs.getLong("id"), rs.getString("username"), fullName, lowerFullName,
+                trigrams(lowerFullName));
+    }
+
+    /**
+     * Splits a lower-cased text into words of letters and digits and returns the trigrams of
+     * every word padded with two spaces in front and one behind, like {@code pg_trgm}.
+     */
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = "  " + text.substring(start, i) + " ";
+                for (int j = 0; j + 3 <= word.length(); j++) {
+                    trigrams.add(word.substring(j, j + 3));
+                }
+                start = -1;
+            }
+        }
+        return trigrams;
+    }
+
+    private record Entry(Long id, String username, String fullName, String lowerFullName, Set<String> trigrams) {
+    }
+}
@@ -0,0 +1,326 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.event.NotificationsQueuedEvent;
+import com.bank.api.techtask.domain.event.NotificationsQueuedEvent.QueuedEmail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends the emails stored by {@link NotificationService}.
+ * <p>
+ * Committed notifications are put on a bounded in-memory queue, drained by a fixed pool of workers.
+ * A worker takes up to a batch of emails, claims their rows by moving {@code next_attempt_at} a lease
+ * ahead, so no other worker or instance sends them meanwhile, and sends the batch over a single SMTP
+ * connection. Sent rows are deleted; failed ones are retried with exponential backoff until the
+ * attempts run out, after which the row is marked failed. The queue only speeds delivery up: a
+ * periodic sweep queues every due row, which covers retries, emails dropped because the queue was
+ * full, and rows left behind by a restart. Outcomes are counted in the {@code bank.notifications} meter.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.dispatch.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationDispatcher {
+
+    public static final String OUTCOME_SENT = "sent";
+    public static final String OUTCOME_RETRIED = "retried";
+    public static final String OUTCOME_FAILED = "failed";
+    public static final String OUTCOME_DROPPED = "dropped";
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String CLAIM = "UPDATE notification SET next_attempt_at = ? "
+            + "WHERE id = ? AND next_attempt_at <= ? AND failed_at IS NULL";
+    private static final String DELETE = "DELETE FROM notification WHERE id = ?";
+    private static final String RETRY = "UPDATE notification SET attempts = ?, last_error = ?, next_attempt_at = ? "
+            + "WHERE id = ?";
+    private static final String FAIL = "UPDATE notification SET attempts = ?, last_error = ?, failed_at = ? "
+            + "WHERE id = ?";
+    private static final String SELECT_DUE = "SELECT id, recipient, subject, body, attempts FROM notification "
+            + "WHERE failed_at IS NULL AND next_attempt_at <= ? ORDER BY next_attempt_at LIMIT ?";
+    private static final RowMapper<QueuedEmail> ROW_MAPPER = (rs, rowNum) -> new QueuedEmail(rs.getLong(1),
+            rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5));
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<QueuedEmail> queue;
+    private final ExecutorService workers;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+
+    /**
+     * Constructs a new NotificationDispatcher and starts its workers.
+     *
+     * @param from the sender address of the emails
+     * @param queueCapacity the number of emails the in-memory queue holds
+     * @param workerCount the number of workers, each sending over its own connection
+     * @param batchSize the maximum number of emails sent over one connection
+     * @param maxAttempts the number of failed attempts after which an email is given up
+     * @param initialBackoff the delay before the first retry, doubled for every further one
+     * @param maxBackoff the longest delay between retries
+     * @param lease how long a claimed email is left to its worker before it is due again
+     */
+    @Autowired
+    public NotificationDispatcher(JdbcTemplate jdbcTemplate, JavaMailSender mailSender, MeterRegistry meterRegistry,
+                                  @Value("${notifications.from:no-reply@bank.local}") String from,
+                                  @Value("${notifications.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${notifications.workers:2}") int workerCount,
+                                  @Value("${notifications.batch-size:50}") int batchSize,
+                                  @Value("${notifications.retry.max-attempts:8}") int maxAttempts,
+                                  @Value("${notifications.retry.initial-backoff:30s}") Duration initialBackoff,
+                                  @Value("${notifications.retry.max-backoff:1h}") Duration maxBackoff,
+                                  @Value("${notifications.lease:5m}") Duration lease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mailSender = mailSender;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.from = from;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.sentCounter = notificationCounter(meterRegistry, OUTCOME_SENT);
+        this.retriedCounter = notificationCounter(meterRegistry, OUTCOME_RETRIED);
+        this.failedCounter = notificationCounter(meterRegistry, OUTCOME_FAILED);
+        this.droppedCounter = notificationCounter(meterRegistry, OUTCOME_DROPPED);
+        Gauge.builder("bank.notifications.queue", queue, BlockingQueue::size)
+                .description("Emails waiting in the in-memory queue")
+                .register(meterRegistry);
+
+        int threads = Math.max(1, workerCount);
+        this.workers = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues the stored emails once their transaction has committed. An email that does not fit in the
+     * queue stays in the table for the next sweep.
+     *
+     * @param event the event with the stored emails
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsQueued(NotificationsQueuedEvent event) {
+        for (QueuedEmail email : event.getEmails()) {
+            if (!queue.offer(email)) {
+                droppedCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Queues the due emails from the table, as many as the queue has room for.
+     *
+     * @return the number of emails queued
+     */
+    @Scheduled(fixedDelayString = "${notifications.sweep-interval-ms:10000}",
+            initialDelayString = "${notifications.sweep-interval-ms:10000}")
+    public int sweep() {
+        int room = queue.remainingCapacity();
+        if (room == 0) {
+            return 0;
+        }
+        List<QueuedEmail> due;
+        try {
+            due = jdbcTemplate.query(SELECT_DUE, ROW_MAPPER, Timestamp.from(Instant.now()), room);
+        } catch (RuntimeException e) {
+            logger.warn("Reading due notifications failed: {}", e.getMessage());
+            return 0;
+        }
+        int queued = 0;
+        for (QueuedEmail email : due) {
+            if (!queue.offer(email)) {
+                break;
+            }
+            queued++;
+        }
+        return queued;
+    }
+
+    private void work() {
+        List<QueuedEmail> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                send(batch);
+            } catch (RuntimeException e) {
+                // the claimed rows become due again when their lease runs out
+                logger.warn("Sending {} notification(s) failed: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private void send(List<QueuedEmail> batch) {
+        List<QueuedEmail> claimed = claim(batch);
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        List<QueuedEmail> sending = new ArrayList<>(claimed.size());
+        List<MimeMessage> messages = new ArrayList<>(claimed.size());
+        Map<QueuedEmail, Exception> failures = new HashMap<>();
+        for (QueuedEmail email : claimed) {
+            try {
+                messages.add(toMessage(email));
+                sending.add(email);
+            } catch (MessagingException e) {
+                failures.put(email, e);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                mailSender.send(messages.toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                Map<Object, Exception> failedMessages = e.getFailedMessages();
+                for (int i = 0; i < messages.size(); i++) {
+                    Exception failure = failedMessages.isEmpty() ? e : failedMessages.get(messages.get(i));
+                    if (failure != null) {
+                        failures.put(sending.get(i), failure);
+                    }
+                }
+            } catch (MailException e) {
+                for (QueuedEmail email : sending) {
+                    failures.put(email, e);
+                }
+            }
+        }
+
+        List<Object[]> sent = new ArrayList<>(claimed.size());
+        for (QueuedEmail email : claimed) {
+            if (!failures.containsKey(email)) {
+                sent.add(new Object[] {email.id()});
+            }
+        }
+        if (!sent.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE, sent);
+            sentCounter.increment(sent.size());
+        }
+        if (!failures.isEmpty()) {
+            reschedule(failures);
+        }
+    }
+
+    /**
+     * Claims the rows of a batch, skipping emails already sent, failed or claimed by another worker.
+     */
+    private List<QueuedEmail> claim(List<QueuedEmail> batch) {
+        Instant now = Instant.now();
+        Timestamp leaseEnd = Timestamp.from(now.plus(lease));
+        Timestamp nowTimestamp = Timestamp.from(now);
+        List<Object[]> claims = new ArrayList<>(batch.size());
+        for (QueuedEmail email : batch) {
+            claims.add(new Object[] {leaseEnd, email.id(), nowTimestamp});
+        }
+        int[] claimed = jdbcTemplate.batchUpdate(CLAIM, claims);
+        List<QueuedEmail> result = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (claimed[i] == 1) {
+                result.add(batch.get(i));
+            }
+        }
+        return result;
+    }
+
+    private void reschedule(Map<QueuedEmail, Exception> failures) {
+        Instant now = Instant.now();
+        List<Object[]> retries = new ArrayList<>();
+        List<Object[]> given = new ArrayList<>();
+        for (Map.Entry<QueuedEmail, Exception> failure : failures.entrySet()) {
+            QueuedEmail email = failure.getKey();
+            int attempts = email.attempts() + 1;
+            String error = truncate(String.valueOf(failure.getValue().getMessage()));
+            if (attempts >= maxAttempts) {
+                logger.warn("Giving up notification {} to {} after {} attempts: {}", email.id(), email.recipient(),
+                        attempts, error);
+                given.add(new Object[] {attempts, error, Timestamp.from(now), email.id()});
+            } else {
+                retries.add(new Object[] {attempts, error, Timestamp.from(now.plus(backoff(attempts))), email.id()});
+            }
+        }
+        if (!retries.isEmpty()) {
+            jdbcTemplate.batchUpdate(RETRY, retries);
+            retriedCounter.increment(retries.size());
+        }
+        if (!given.isEmpty()) {
+            jdbcTemplate.batchUpdate(FAIL, given);
+            failedCounter.increment(given.size());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private MimeMessage toMessage(QueuedEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(from);
+        helper.setTo(email.recipient());
+        helper.setSubject(email.subject());
+        helper.setText(email.body());
+        return message;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static Counter notificationCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("bank.notifications")
+                .description("Email notifications by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
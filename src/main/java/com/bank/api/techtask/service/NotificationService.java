@@ -0,0 +1,151 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.event.NotificationsQueuedEvent;
+import com.bank.api.techtask.domain.event.NotificationsQueuedEvent.QueuedEmail;
+import com.bank.api.techtask.domain.event.TransferCompleted;
+import com.bank.api.techtask.domain.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes email notifications to the {@code notification} table. A notification is stored in the
+ * transaction of the change it reports, so it is sent if and only if the change commits, and nothing
+ * here talks to the mail server: sending is left to {@link NotificationDispatcher}.
+ */
+@Service
+public class NotificationService {
+
+    private static final String INSERT_NOTIFICATION = "INSERT INTO notification (recipient, subject, body, "
+            + "attempts, next_attempt_at, created_at) VALUES (?, ?, ?, 0, ?, ?)";
+
+    /**
+     * Security notices sent to the owner of an account.
+     */
+    public enum SecurityNotice {
+        SIGN_IN("New sign-in to your account", "Your account %s has just been signed in to."),
+        EMAIL_CHANGED("Your email address was changed", "The email address of your account %s has been changed."),
+        EMAIL_REMOVED("Your email address was removed",
+                "The email address has been removed from your account %s."),
+        PHONE_NUMBER_CHANGED("Your phone number was changed",
+                "The phone number of your account %s has been changed."),
+        PHONE_NUMBER_REMOVED("Your phone number was removed",
+                "The phone number has been removed from your account %s.");
+
+        private final String subject;
+        private final String text;
+
+        SecurityNotice(String subject, String text) {
+            this.subject = subject;
+            this.text = text;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public NotificationService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Adds the receipts of a transfer for both parties. A party without an email address gets none.
+     *
+     * @param sender the user the money was taken from
+     * @param recipient the user the money was added to
+     * @param transfer the completed transfer
+     */
+    @Transactional
+    public void notifyTransfer(User sender, User recipient, TransferCompleted transfer) {
+        List<Email> emails = new ArrayList<>(2);
+        if (sender != null && sender.getEmail() != null) {
+            emails.add(new Email(sender.getEmail(), "Transfer receipt", String.format(
+                    "You sent %s to account %d at %s.%nYour balance is now %s.", transfer.amount(),
+                    transfer.recipientAccountId(), transfer.occurredAt(), transfer.senderBalance())));
+        }
+        if (recipient != null && recipient.getEmail() != null) {
+            emails.add(new Email(recipient.getEmail(), "Money received", String.format(
+                    "You received %s from account %d at %s.%nYour balance is now %s.", transfer.amount(),
+                    transfer.senderAccountId(), transfer.occurredAt(), transfer.recipientBalance())));
+        }
+        store(emails);
+    }
+
+    /**
+     * Adds a security notice for each of the given addresses. Missing and repeated addresses are skipped.
+     *
+     * @param notice the notice
+     * @param username the username of the account the notice is about
+     * @param recipients the addresses to notify
+     */
+    @Transactional
+    public void notifySecurity(SecurityNotice notice, String username, String... recipients) {
+        String body = String.format(notice.text + "%nIf this was not you, contact support immediately.",
+                username);
+        Set<String> addresses = new LinkedHashSet<>();
+        for (String recipient : recipients) {
+            if (recipient != null) {
+                addresses.add(recipient);
+            }
+        }
+        List<Email> emails = new ArrayList<>(addresses.size());
+        for (String address : addresses) {
+            emails.add(new Email(address, notice.subject, body));
+        }
+        store(emails);
+    }
+
+    private void store(List<Email> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_NOTIFICATION, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Email email = emails.get(i);
+                        ps.setString(1, email.recipient());
+                        ps.setString(2, email.subject());
+                        ps.setString(3, email.body());
+                        ps.setTimestamp(4, now);
+                        ps.setTimestamp(5, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return emails.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> ids = keys.getKeyList();
+        List<QueuedEmail> queued = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            Email email = emails.get(i);
+            long id = ((Number) ids.get(i).values().iterator().next()).longValue();
+            queued.add(new QueuedEmail(id, email.recipient(), email.subject(), email.body(), 0));
+        }
+        eventPublisher.publishEvent(new NotificationsQueuedEvent(queued));
+    }
+
+    private record Email(String recipient, String subject, String body) {
+    }
+}
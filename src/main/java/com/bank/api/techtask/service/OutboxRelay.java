@@ -0,0 +1,154 @@
+package com.bank.api.techtask.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes the transactional outbox to Kafka.
+ * <p>
+ * Each batch is read in id order and locked with {@code FOR UPDATE}, so a second instance waits
+ * instead of publishing later rows first. The batch is sent with the message key set to the account,
+ * which keeps the messages of one account in order on one partition, and the rows are deleted only
+ * after every send has been acknowledged. If a send fails, the transaction rolls back and the whole
+ * batch is sent again on the next run, so delivery is at least once: consumers drop duplicates by the
+ * {@value #OUTBOX_ID_HEADER} header.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    public static final String EVENT_TYPE_HEADER = "event-type";
+    public static final String OUTBOX_ID_HEADER = "outbox-id";
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String SELECT_BATCH = "SELECT id, aggregate_id, event_type, payload, created_at "
+            + "FROM outbox_event ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String DELETE_EVENT = "DELETE FROM outbox_event WHERE id = ?";
+    private static final RowMapper<OutboxRow> ROW_MAPPER = (rs, rowNum) -> new OutboxRow(rs.getLong(1),
+            rs.getLong(2), rs.getString(3), rs.getString(4), rs.getTimestamp(5).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String topic;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Timer lagTimer;
+    private final Counter publishedCounter;
+
+    @Autowired
+    public OutboxRelay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       KafkaTemplate<String, String> kafkaTemplate, MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.topic:bank.account-events}") String topic,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout:30s}") Duration sendTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.lagTimer = Timer.builder("bank.outbox.lag")
+                .description("Time from writing an outbox message to its acknowledgement by Kafka")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("bank.outbox.published")
+                .description("Outbox messages published to Kafka")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes batches until the outbox is drained or a batch fails.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            while (publishBatch() == batchSize) {
+                // the outbox may hold more
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Publishing the outbox failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes the oldest batch of outbox messages and deletes them.
+     *
+     * @return the number of messages published
+     */
+    public int publishBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxRow> rows = jdbcTemplate.query(SELECT_BATCH, ROW_MAPPER, batchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(rows.size());
+            for (OutboxRow row : rows) {
+                sends.add(kafkaTemplate.send(toRecord(row)));
+            }
+            kafkaTemplate.flush();
+            await(sends);
+
+            List<Object[]> ids = new ArrayList<>(rows.size());
+            Instant now = Instant.now();
+            for (OutboxRow row : rows) {
+                ids.add(new Object[] {row.id()});
+                lagTimer.record(Duration.between(row.createdAt(), now));
+            }
+            jdbcTemplate.batchUpdate(DELETE_EVENT, ids);
+            publishedCounter.increment(rows.size());
+            return rows.size();
+        });
+        return published == null ? 0 : published;
+    }
+
+    private ProducerRecord<String, String> toRecord(OutboxRow row) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, String.valueOf(row.aggregateId()),
+                row.payload());
+        record.headers().add(EVENT_TYPE_HEADER, row.eventType().getBytes(StandardCharsets.UTF_8));
+        record.headers().add(OUTBOX_ID_HEADER, String.valueOf(row.id()).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private void await(List<CompletableFuture<SendResult<String, String>>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing the outbox", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Kafka rejected an outbox message", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge the outbox batch within " + sendTimeout, e);
+        }
+    }
+
+    private record OutboxRow(long id, long aggregateId, String eventType, String payload, Instant createdAt) {
+    }
+}
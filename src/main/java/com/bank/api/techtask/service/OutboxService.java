@@ -0,0 +1,101 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.event.DepositsCredited;
+import com.bank.api.techtask.domain.event.InterestAccrued;
+import com.bank.api.techtask.domain.event.TransferCompleted;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes messages into the transactional outbox. Callers must already be in the transaction that
+ * makes the change the message describes, so both are committed or rolled back together.
+ * The messages are published to Kafka later by {@link OutboxRelay}.
+ */
+@Service
+public class OutboxService {
+
+    public static final String TRANSFER_COMPLETED = "TransferCompleted";
+    public static final String INTEREST_ACCRUED = "InterestAccrued";
+    public static final String DEPOSITS_CREDITED = "DepositsCredited";
+
+    private static final String INSERT_EVENT = "INSERT INTO outbox_event (aggregate_id, event_type, payload, "
+            + "created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OutboxService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Adds the transfer message once for the sender and once for the recipient account, keyed by
+     * that account, in a single batch, so each account's stream carries every change of its balance.
+     *
+     * @param transfer the completed transfer
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfer(TransferCompleted transfer) {
+        Timestamp now = Timestamp.from(Instant.now());
+        String payload = toJson(transfer);
+        jdbcTemplate.batchUpdate(INSERT_EVENT, List.of(
+                new Object[] {transfer.senderAccountId(), TRANSFER_COMPLETED, payload, now},
+                new Object[] {transfer.recipientAccountId(), TRANSFER_COMPLETED, payload, now}));
+    }
+
+    /**
+     * Adds one accrual message per account, keyed by the account, in a single batch.
+     *
+     * @param accruals the accruals made
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAccruals(List<InterestAccrued> accruals) {
+        if (accruals.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(accruals.size());
+        for (InterestAccrued accrual : accruals) {
+            rows.add(new Object[] {accrual.accountId(), INTEREST_ACCRUED, toJson(accrual), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+    }
+
+    /**
+     * Adds one deposit message per credited account, keyed by the account, in a single batch.
+     *
+     * @param credits the credits made
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeposits(List<DepositsCredited> credits) {
+        if (credits.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(credits.size());
+        for (DepositsCredited credit : credits) {
+            rows.add(new Object[] {credit.accountId(), DEPOSITS_CREDITED, toJson(credit), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+    }
+
+    private String toJson(Object message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox message " + message, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.model.Role;
+import com.bank.api.techtask.domain.model.RoleEnum;
+import com.bank.api.techtask.exception.RoleNotFoundException;
+import com.bank.api.techtask.repository.RoleRepository;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Immutable cache of the {@link Role} reference data.
+ * Roles are seeded together with the schema and never change at runtime,
+ * so they are read once at startup instead of on every sign-up.
+ */
+@Component
+public class RoleCache {
+
+    private final RoleRepository roleRepository;
+    private volatile Map<RoleEnum, Role> roles;
+
+    @Autowired
+    public RoleCache(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Loads all roles from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<RoleEnum, Role> loaded = new EnumMap<>(RoleEnum.class);
+        for (Role role : roleRepository.findAll()) {
+            loaded.put(role.getName(), role);
+        }
+        roles = Collections.unmodifiableMap(loaded);
+    }
+
+    /**
+     * Returns the role with the given name.
+     *
+     * @param name the name of the role.
+     * @return the role.
+     * @throws RoleNotFoundException if the role does not exist.
+     */
+    public Role get(RoleEnum name) {
+        if (roles == null) {
+            load();
+        }
+        Role role = roles.get(name);
+        if (role == null) {
+            throw new RoleNotFoundException("Error. Role " + name + " not found.");
+        }
+        return role;
+    }
+}
@@ -0,0 +1,119 @@
+package com.bank.api.techtask.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Maintains the monthly partitions of {@code transfer_history} in PostgreSQL.
+ * <p>
+ * At startup and once a day the partitions for the current month and the next
+ * {@code transfers.history.partitions.ahead} months are created, so inserts never meet a missing
+ * partition. When {@code transfers.history.partitions.retention-months} is set, partitions of months
+ * older than that are detached with {@code DETACH PARTITION ... CONCURRENTLY}, which does not block
+ * statements on the rest of the table. A detached partition is kept as a plain table for archiving;
+ * dropping it is left to whoever archives it.
+ */
+@Component
+@ConditionalOnProperty(name = "transfers.history.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class TransferHistoryPartitions {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferHistoryPartitions.class);
+
+    private static final String TABLE = "transfer_history";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'_y'yyyy'm'MM");
+    private static final String SELECT_PARTITIONS = "SELECT c.relname, i.inhdetachpending FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = '" + TABLE + "'::regclass";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    /**
+     * Constructs a new TransferHistoryPartitions.
+     *
+     * @param jdbcTemplate the template, used outside transactions as a concurrent detach requires
+     * @param monthsAhead how many months after the current one to keep partitions ready for
+     * @param retentionMonths how many months before the current one to keep attached, zero to keep all
+     */
+    @Autowired
+    public TransferHistoryPartitions(JdbcTemplate jdbcTemplate,
+                                     @Value("${transfers.history.partitions.ahead:3}") int monthsAhead,
+                                     @Value("${transfers.history.partitions.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = Math.max(0, monthsAhead);
+        this.retentionMonths = Math.max(0, retentionMonths);
+    }
+
+    /**
+     * Creates the missing partitions and detaches the expired ones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${transfers.history.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        try {
+            for (int i = 0; i <= monthsAhead; i++) {
+                createPartition(current.plusMonths(i));
+            }
+            if (retentionMonths > 0) {
+                detachBefore(current.minusMonths(retentionMonths));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Maintaining the partitions of {} failed: {}", TABLE, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the name of the partition holding the given month.
+     *
+     * @param month the month
+     * @return the partition name, such as {@code transfer_history_y2024m05}
+     */
+    public static String partitionName(YearMonth month) {
+        return TABLE + SUFFIX.format(month);
+    }
+
+    private void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + TABLE
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    private void detachBefore(YearMonth oldestKept) {
+        List<Partition> partitions = jdbcTemplate.query(SELECT_PARTITIONS,
+                (rs, rowNum) -> new Partition(rs.getString(1), rs.getBoolean(2)));
+        for (Partition partition : partitions) {
+            YearMonth month = monthOf(partition.name());
+            if (month == null || !month.isBefore(oldestKept)) {
+                continue;
+            }
+            // a concurrent detach that was interrupted leaves the partition pending and must be finalized
+            String mode = partition.detachPending() ? " FINALIZE" : " CONCURRENTLY";
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition.name() + mode);
+            logger.info("Detached partition {} of {} for archiving", partition.name(), TABLE);
+        }
+    }
+
+    private static YearMonth monthOf(String partitionName) {
+        try {
+            return YearMonth.parse(partitionName.substring(TABLE.length()), SUFFIX);
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private record Partition(String name, boolean detachPending) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.TransferCursor;
+import com.bank.api.techtask.domain.event.TransferCompleted;
+import com.bank.api.techtask.domain.response.CursorPage;
+import com.bank.api.techtask.domain.response.TransferHistoryEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records transfers in the {@code transfer_history} table and reads account statements from it.
+ * <p>
+ * A transfer is stored as two lines, one per account, so a statement is a range read of the
+ * {@code (account_id, created_at, id)} index. Statements are paged newest first by keyset: each page
+ * continues below the time and id of the last line of the previous one, so a deep page costs the same
+ * as the first. The table is partitioned by month, see {@link TransferHistoryPartitions}.
+ */
+@Service
+public class TransferHistoryService {
+
+    private static final String INSERT_LINE = "INSERT INTO transfer_history (account_id, counterparty_account_id, "
+            + "amount, balance_after, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_LINES = "SELECT id, counterparty_account_id, amount, balance_after, created_at "
+            + "FROM transfer_history WHERE account_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration clockSkew;
+
+    /**
+     * Constructs a new TransferHistoryService.
+     *
+     * @param jdbcTemplate the JDBC template
+     * @param clockSkew how far ahead of this instance's clock another instance may have stamped a line
+     */
+    @Autowired
+    public TransferHistoryService(JdbcTemplate jdbcTemplate,
+                                  @Value("${transfers.history.clock-skew:1m}") Duration clockSkew) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clockSkew = clockSkew;
+    }
+
+    /**
+     * Adds the sender's and the recipient's line of a transfer in a single batch. Callers must be in
+     * the transaction that made the transfer.
+     *
+     * @param transfer the completed transfer
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(TransferCompleted transfer) {
+        Timestamp createdAt = Timestamp.from(transfer.occurredAt());
+        jdbcTemplate.batchUpdate(INSERT_LINE, List.of(
+                new Object[] {transfer.senderAccountId(), transfer.recipientAccountId(), transfer.amount().negate(),
+                        transfer.senderBalance(), createdAt},
+                new Object[] {transfer.recipientAccountId(), transfer.senderAccountId(), transfer.amount(),
+                        transfer.recipientBalance(), createdAt}));
+    }
+
+    /**
+     * Returns one page of an account statement, newest first.
+     * <p>
+     * The query always carries a plain upper bound on {@code created_at}, as only that lets the database
+     * skip the partitions of later months. It is taken from the cursor or the end of the period; the first
+     * page of an open period is bounded by the current time plus {@code transfers.history.clock-skew}, as
+     * lines are stamped by the clock of the instance that made the transfer.
+     *
+     * @param accountId the account
+     * @param size the maximum number of lines on the page
+     * @param cursor the continuation token of the previous page, or null for the first page
+     * @param from the first day of the period, or null
+     * @param to the last day of the period, inclusive, or null
+     * @return the page and the continuation token for the next one
+     */
+    public CursorPage<TransferHistoryEntry> getStatement(long accountId, int size, String cursor, LocalDate from,
+                                                         LocalDate to) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("The start of the period must not be after its end");
+        }
+        TransferCursor after = cursor == null ? null : TransferCursor.decode(cursor);
+
+        StringBuilder sql = new StringBuilder(SELECT_LINES);
+        List<Object> args = new ArrayList<>(7);
+        args.add(accountId);
+        if (after != null) {
+            Timestamp createdAt = Timestamp.from(after.getCreatedAt());
+            sql.append(" AND created_at <= ? AND (created_at, id) < (?, ?)");
+            args.add(createdAt);
+            args.add(createdAt);
+            args.add(after.getId());
+        }
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        } else if (after == null) {
+            sql.append(" AND created_at <= ?");
+            args.add(Timestamp.from(Instant.now().plus(clockSkew)));
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        args.add(size + 1);
+
+        List<TransferHistoryEntry> lines = jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new TransferHistoryEntry(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3),
+                        rs.getBigDecimal(4), rs.getTimestamp(5).toInstant()),
+                args.toArray());
+
+        String nextCursor = null;
+        if (lines.size() > size) {
+            lines = lines.subList(0, size);
+            TransferHistoryEntry last = lines.get(size - 1);
+            nextCursor = new TransferCursor(last.createdAt(), last.id()).encode();
+        }
+        return new CursorPage<>(lines, nextCursor);
+    }
+}
@@ -0,0 +1,53 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.UserNameMatch;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link UserNameSearch} backed by the PostgreSQL {@code pg_trgm} extension.
+ * Both the substring match ({@code ILIKE '%query%'}) and the similarity match ({@code <%}) are
+ * answered by the {@code users_full_name_trgm_idx} GIN index, so the search reads only the
+ * candidate rows instead of scanning the table. Candidates are ranked by word similarity.
+ * <p>
+ * A GIN index returns its matches unordered, so a common query such as a frequent surname would
+ * make the database rank a large part of the table. Ranking is therefore limited to the first
+ * {@code users.search.fuzzy.max-candidates} matches; for such queries the planner switches to a
+ * sequential scan that stops as soon as enough candidates are found.
+ */
+@Component
+@ConditionalOnProperty(name = "users.search.fuzzy.engine", havingValue = "pg-trgm", matchIfMissing = true)
+public class TrigramUserNameSearch implements UserNameSearch {
+
+    private static final String SEARCH = "SELECT id, username, full_name, word_similarity(?, full_name) AS score "
+            + "FROM (SELECT id, username, full_name FROM users "
+            + "WHERE full_name ILIKE ? ESCAPE '\\' OR ? <% full_name LIMIT ?) candidates "
+            + "ORDER BY score DESC, id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxCandidates;
+
+    @Autowired
+    public TrigramUserNameSearch(JdbcTemplate jdbcTemplate,
+                                 @Value("${users.search.fuzzy.max-candidates:1000}") int maxCandidates) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @Override
+    public List<UserNameMatch> search(String query, int limit) {
+        String pattern = "%" + escapeLike(query) + "%";
+        return jdbcTemplate.query(SEARCH,
+                (rs, rowNum) -> new UserNameMatch(rs.getLong("id"), rs.getString("username"),
+                        rs.getString("full_name"), rs.getDouble("score")),
+                query, pattern, query, Math.max(maxCandidates, limit), limit);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
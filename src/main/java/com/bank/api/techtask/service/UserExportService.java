@@ -0,0 +1,173 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.UserSummary;
+import com.bank.api.techtask.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for exporting users as NDJSON or CSV.
+ * Rows are read through a forward-only JDBC cursor and written to the output stream one by one,
+ * so the memory used by an export does not depend on the number of users.
+ */
+@Service
+public class UserExportService {
+
+    private static final String CSV_HEADER = "id,username,fullName,dateOfBirth,email,phoneNumber,accountId,balance";
+
+    /**
+     * Supported output formats.
+     */
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Returns the format for a request parameter value, ignoring case.
+         *
+         * @param parameter the parameter value, {@code ndjson} or {@code csv}
+         * @return the format
+         * @throws IllegalArgumentException if the format is not supported
+         */
+        public static ExportFormat fromParameter(String parameter) {
+            for (ExportFormat format : values()) {
+                if (format.extension.equalsIgnoreCase(parameter)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + parameter);
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    @Autowired
+    public UserExportService(UserRepository userRepository, ObjectMapper objectMapper,
+                             @Value("${users.export.fetch-size:1000}") int fetchSize) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes all users matching the search filters to the given stream.
+     * The transaction keeps the database cursor open while the rows are written.
+     *
+     * @param format the output format
+     * @param output the stream to write to; it is flushed but not closed
+     * @throws IOException if writing to the stream fails, for example because the client disconnected
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(Date dateOfBirth, String phoneNumber, String fullName, String email,
+                            ExportFormat format, OutputStream output) throws IOException {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                writeNdjson(dateOfBirth, phoneNumber, fullName, email, output);
+            } else {
+                writeCsv(dateOfBirth, phoneNumber, fullName, email, output);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Date dateOfBirth, String phoneNumber, String fullName, String email,
+                             OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            userRepository.streamSummaries(dateOfBirth, phoneNumber, fullName, email, fetchSize, user -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", user.getId());
+                    generator.writeStringField("username", user.getUsername());
+                    generator.writeStringField("fullName", user.getFullName());
+                    generator.writeStringField("dateOfBirth", formatDate(user.getDateOfBirth()));
+                    generator.writeStringField("email", user.getEmail());
+                    generator.writeStringField("phoneNumber", user.getPhoneNumber());
+                    if (user.getAccountId() == null) {
+                        generator.writeNullField("accountId");
+                    } else {
+                        generator.writeNumberField("accountId", user.getAccountId());
+                    }
+                    generator.writeNumberField("balance", user.getBalance());
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(Date dateOfBirth, String phoneNumber, String fullName, String email,
+                          OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        userRepository.streamSummaries(dateOfBirth, phoneNumber, fullName, email, fetchSize, user -> {
+            try {
+                writer.write(String.valueOf(user.getId()));
+                writeCsvValue(writer, user.getUsername());
+                writeCsvValue(writer, user.getFullName());
+                writeCsvValue(writer, formatDate(user.getDateOfBirth()));
+                writeCsvValue(writer, user.getEmail());
+                writeCsvValue(writer, user.getPhoneNumber());
+                writeCsvValue(writer, user.getAccountId() == null ? null : user.getAccountId().toString());
+                writeCsvValue(writer, user.getBalance() == null ? null : user.getBalance().toPlainString());
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String formatDate(Date date) {
+        return date == null ? null : new java.sql.Date(date.getTime()).toString();
+    }
+}
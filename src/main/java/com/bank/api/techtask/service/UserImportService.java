@@ -0,0 +1,446 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.SignUpRequest;
+import com.bank.api.techtask.domain.event.UserDataChangedEvent;
+import com.bank.api.techtask.domain.model.RoleEnum;
+import com.bank.api.techtask.domain.response.UserImportReport;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for onboarding users in bulk from an NDJSON or CSV stream.
+ * The input is read line by line and processed in fixed-size chunks: passwords of a chunk are
+ * hashed in parallel on a bounded pool, duplicates are detected with one query per chunk and the
+ * {@code users}, {@code user_roles} and {@code account} rows are written as JDBC batches.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String INSERT_USER = "INSERT INTO users (username, email, password, full_name, "
+            + "date_of_birth, phone_number) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String INSERT_ACCOUNT = "INSERT INTO account (balance, user_id, initial_balance) "
+            + "VALUES (?, ?, ?)";
+    private static final DateTimeFormatter CSV_DATE = DateTimeFormatter.ofPattern("uuuu-MM-dd")
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final String SELECT_CONFLICTS = "SELECT username, email, phone_number FROM users "
+            + "WHERE username IN (:usernames) OR email IN (:emails) OR phone_number IN (:phoneNumbers)";
+
+    /**
+     * Supported input formats.
+     */
+    public enum ImportFormat {
+        NDJSON, CSV
+    }
+
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RoleCache roleCache;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService hashingPool;
+    private final int chunkSize;
+
+    @Autowired
+    public UserImportService(PasswordEncoder passwordEncoder, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager, RoleCache roleCache,
+                             Validator validator, ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${users.import.chunk-size:500}") int chunkSize,
+                             @Value("${users.import.hash-threads:0}") int hashThreads) {
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.roleCache = roleCache;
+        this.validator = validator;
+        // reject impossible dates such as 2024-13-45 instead of rolling them over
+        this.objectMapper = objectMapper.copy();
+        this.objectMapper.configOverride(java.util.Date.class).setFormat(JsonFormat.Value.forLeniency(false));
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.hashingPool = Executors.newFixedThreadPool(
+                hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * Imports users from the given stream.
+     *
+     * @param input the NDJSON or CSV input
+     * @param format the format of the input
+     * @return the import report with counters and rejected rows
+     * @throws IOException if the input cannot be read
+     */
+    public UserImportReport importUsers(InputStream input, ImportFormat format) throws IOException {
+        UserImportReport report = new UserImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Integer> csvColumns = format == ImportFormat.CSV ? readCsvHeader(reader) : null;
+        long lineNumber = csvColumns == null ? 0 : 1;
+
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.rowRead();
+            try {
+                SignUpRequest request = csvColumns == null
+                        ? objectMapper.readValue(line, SignUpRequest.class)
+                        : parseCsvRow(line, csvColumns);
+                String violation = validate(request);
+                if (violation != null) {
+                    report.rowRejected(lineNumber, violation);
+                    continue;
+                }
+                chunk.add(new ImportRow(lineNumber, request));
+            } catch (IOException | IllegalArgumentException e) {
+                report.rowRejected(lineNumber, "Malformed row: " + e.getMessage());
+                continue;
+            }
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, report);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, report);
+        }
+        logger.info("User import finished: {} rows read, {} imported, {} rejected",
+                report.getTotalRows(), report.getImportedRows(), report.getRejectedRows());
+        return report;
+    }
+
+    private String validate(SignUpRequest request) {
+        Set<ConstraintViolation<SignUpRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (request.getInitialSum().compareTo(BigDecimal.ZERO) <= 0) {
+            return "initialSum: must be greater than 0";
+        }
+        return null;
+    }
+
+    private void processChunk(List<ImportRow> chunk, UserImportReport report) {
+        List<ImportRow> accepted = rejectDuplicates(chunk, report);
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<ImportRow> hashed = hashPasswords(accepted, report);
+        if (hashed.isEmpty()) {
+            return;
+        }
+        insertChunk(hashed, report);
+        logger.info("User import progress: {} rows read, {} imported, {} rejected",
+                report.getTotalRows(), report.getImportedRows(), report.getRejectedRows());
+    }
+
+    /**
+     * Writes the rows in one transaction. A constraint violation, such as a sign-up that took a username
+     * between the duplicate check and the insert, splits the rows in half and retries each half, so only
+     * the conflicting rows are rejected and the rest of the chunk is still imported.
+     */
+    private void insertChunk(List<ImportRow> rows, UserImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertRows(rows));
+            report.rowsImported(rows.size());
+        } catch (DataIntegrityViolationException e) {
+            if (rows.size() > 1) {
+                int middle = rows.size() / 2;
+                insertChunk(rows.subList(0, middle), report);
+                insertChunk(rows.subList(middle, rows.size()), report);
+                return;
+            }
+            // re-run the duplicate check to report which value was taken in the meantime
+            if (!rejectDuplicates(rows, report).isEmpty()) {
+                report.rowRejected(rows.get(0).line(), "Database error: " + e.getMostSpecificCause().getMessage());
+            }
+        } catch (DataAccessException e) {
+            logger.error("User import chunk starting at line {} failed", rows.get(0).line(), e);
+            for (ImportRow row : rows) {
+                report.rowRejected(row.line(), "Database error: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private List<ImportRow> rejectDuplicates(List<ImportRow> chunk, UserImportReport report) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> phoneNumbers = new HashSet<>();
+        List<ImportRow> unique = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            // a rejected row must not claim any of its values, or a later row reusing one would be rejected too
+            SignUpRequest request = row.request();
+            if (usernames.contains(request.getUsername())) {
+                report.rowRejected(row.line(), "Duplicate username in input");
+            } else if (emails.contains(request.getEmail())) {
+                report.rowRejected(row.line(), "Duplicate email in input");
+            } else if (phoneNumbers.contains(request.getPhoneNumber())) {
+                report.rowRejected(row.line(), "Duplicate phone number in input");
+            } else {
+                usernames.add(request.getUsername());
+                emails.add(request.getEmail());
+                phoneNumbers.add(request.getPhoneNumber());
+                unique.add(row);
+            }
+        }
+        if (unique.isEmpty()) {
+            return unique;
+        }
+
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        Set<String> takenPhoneNumbers = new HashSet<>();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("usernames", usernames)
+                .addValue("emails", emails)
+                .addValue("phoneNumbers", phoneNumbers);
+        namedParameterJdbcTemplate.query(SELECT_CONFLICTS, params, rs -> {
+            takenUsernames.add(rs.getString(1));
+            takenEmails.add(rs.getString(2));
+            takenPhoneNumbers.add(rs.getString(3));
+        });
+
+        List<ImportRow> accepted = new ArrayList<>(unique.size());
+        for (ImportRow row : unique) {
+            SignUpRequest request = row.request();
+            if (takenUsernames.contains(request.getUsername())) {
+                report.rowRejected(row.line(), "Username is already taken");
+            } else if (takenEmails.contains(request.getEmail())) {
+                report.rowRejected(row.line(), "Email is already in use");
+            } else if (takenPhoneNumbers.contains(request.getPhoneNumber())) {
+                report.rowRejected(row.line(), "Phone number already in use");
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Hashes the passwords of the rows in parallel. A row whose password cannot be hashed is
+     * rejected on its own; the rest of the chunk is still imported.
+     *
+     * @return the rows that were hashed, with their password hash
+     */
+    private List<ImportRow> hashPasswords(List<ImportRow> rows, UserImportReport report) {
+        List<Callable<String>> tasks = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            String password = row.request().getPassword();
+            tasks.add(() -> passwordEncoder.encode(password));
+        }
+        List<Future<String>> futures;
+        try {
+            futures = hashingPool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User import interrupted", e);
+        }
+        List<ImportRow> hashed = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            try {
+                hashed.add(row.withPasswordHash(futures.get(i).get()));
+            } catch (ExecutionException e) {
+                logger.warn("Password hashing failed for the user import row at line {}", row.line(), e.getCause());
+                report.rowRejected(row.line(), "Password hashing failed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("User import interrupted", e);
+            }
+        }
+        return hashed;
+    }
+
+    private void insertRows(List<ImportRow> rows) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_USER, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        SignUpRequest request = rows.get(i).request();
+                        ps.setString(1, request.getUsername());
+                        ps.setString(2, request.getEmail());
+                        ps.setString(3, rows.get(i).passwordHash());
+                        ps.setString(4, request.getFullName());
+                        ps.setDate(5, new Date(request.getDateOfBirth().getTime()));
+                        ps.setString(6, request.getPhoneNumber());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keyHolder);
+
+        // the key maps are case-insensitive, whatever case the driver reports the column in
+        List<Long> userIds = keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.get("id")).longValue())
+                .toList();
+        long userRoleId = roleCache.get(RoleEnum.ROLE_USER).getId();
+        long adminRoleId = roleCache.get(RoleEnum.ROLE_ADMIN).getId();
+
+        List<Object[]> userRoles = new ArrayList<>(userIds.size() * 2);
+        List<Object[]> accounts = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            Long userId = userIds.get(i);
+            BigDecimal initialSum = rows.get(i).request().getInitialSum();
+            userRoles.add(new Object[]{userId, userRoleId});
+            userRoles.add(new Object[]{userId, adminRoleId});
+            accounts.add(new Object[]{initialSum, userId, initialSum});
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, userRoles);
+        jdbcTemplate.batchUpdate(INSERT_ACCOUNT, accounts);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userIds));
+    }
+
+    private Map<String, Integer> readCsvHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return Map.of();
+        }
+        List<String> columns = splitCsvLine(header);
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            indexes.put(normalizeColumn(columns.get(i)), i);
+        }
+        return indexes;
+    }
+
+    private SignUpRequest parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsvLine(line);
+        SignUpRequest request = new SignUpRequest();
+        request.setUsername(csvValue(values, columns, "username"));
+        request.setFullName(csvValue(values, columns, "fullname"));
+        request.setEmail(csvValue(values, columns, "email"));
+        request.setPassword(csvValue(values, columns, "password"));
+        request.setPhoneNumber(csvValue(values, columns, "phonenumber"));
+        String dateOfBirth = csvValue(values, columns, "dateofbirth");
+        if (dateOfBirth != null) {
+            try {
+                request.setDateOfBirth(Date.valueOf(LocalDate.parse(dateOfBirth, CSV_DATE)));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("dateOfBirth must be in yyyy-MM-dd format");
+            }
+        }
+        String initialSum = csvValue(values, columns, "initialsum");
+        if (initialSum != null) {
+            request.setInitialSum(new BigDecimal(initialSum));
+        }
+        return request;
+    }
+
+    private static String csvValue(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    private static String normalizeColumn(String column) {
+        return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted value");
+        }
+        values.add(current.toString().trim());
+        return values;
+    }
+
+    private record ImportRow(long line, SignUpRequest request, String passwordHash) {
+
+        private ImportRow(long line, SignUpRequest request) {
+            this(line, request, null);
+        }
+
+        private ImportRow withPasswordHash(String hash) {
+            return new ImportRow(line, request, hash);
+        }
+    }
+}
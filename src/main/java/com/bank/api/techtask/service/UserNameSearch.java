@@ -0,0 +1,21 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.UserNameMatch;
+import java.util.List;
+
+/**
+ * Fuzzy search of users by full name. Finds names that contain the query as a substring,
+ * ignoring case, as well as names that are merely similar to it, for example misspelled.
+ * The implementation is selected by the {@code users.search.fuzzy.engine} property.
+ */
+public interface UserNameSearch {
+
+    /**
+     * Searches users by full name.
+     *
+     * @param query the query, at least three characters long.
+     * @param limit the maximum number of users to return.
+     * @return the matching users, most similar first.
+     */
+    List<UserNameMatch> search(String query, int limit);
+}
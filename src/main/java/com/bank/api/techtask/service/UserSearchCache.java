@@ -0,0 +1,180 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.UserSummary;
+import com.bank.api.techtask.domain.event.UserDataChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Shares the results of identical admin user searches.
+ * <p>
+ * Concurrent searches with the same filters, page and sort are coalesced: the first caller runs
+ * the query and the others wait for its result instead of running it again. Completed results
+ * are additionally kept for {@code users.search.cache.ttl}, so auto-refreshing dashboards hit the
+ * database once per TTL; a TTL of zero disables the result cache but keeps the coalescing.
+ * <p>
+ * Cached results are dropped when a {@link UserDataChangedEvent} is published. Balances change
+ * without such an event, on transfers and the periodic accrual, so they may be up to one TTL old.
+ * Hits, misses and coalesced calls are counted in the {@code users.search.cache} meter.
+ */
+@Component
+public class UserSearchCache {
+
+    private final Map<SearchKey, CompletableFuture<Page<UserSummary>>> inFlight = new ConcurrentHashMap<>();
+    private final Map<SearchKey, CachedPage> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    /**
+     * Constructs a new UserSearchCache.
+     *
+     * @param ttl how long a result is reused, zero to disable the result cache
+     * @param maxEntries the maximum number of cached results
+     * @param meterRegistry the registry for the hit, miss and coalesce counters
+     */
+    @Autowired
+    public UserSearchCache(@Value("${users.search.cache.ttl:2s}") Duration ttl,
+                           @Value("${users.search.cache.max-entries:1000}") int maxEntries,
+                           MeterRegistry meterRegistry) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.coalesced = counter(meterRegistry, "coalesced");
+    }
+
+    /**
+     * Returns the page for the given search, from the cache, from an identical search that is
+     * already running, or by running the loader.
+     *
+     * @param dateOfBirth the minimum date of birth filter, or null
+     * @param phoneNumber the phone number filter, or null
+     * @param fullName the full name prefix filter, or null
+     * @param email the email filter, or null
+     * @param pageable the page number, size and sort
+     * @param loader the query to run on a miss
+     * @return the page of user summaries
+     */
+    public Page<UserSummary> get(Date dateOfBirth, String phoneNumber, String fullName, String email,
+                                 Pageable pageable, Supplier<Page<UserSummary>> loader) {
+        SearchKey key = new SearchKey(toLocalDate(dateOfBirth), phoneNumber, fullName, email, pageable);
+
+        CachedPage cached = cache.get(key);
+        if (cached != null) {
+            if (System.nanoTime() - cached.expiresAt() < 0) {
+                hits.increment();
+                return cached.page();
+            }
+            cache.remove(key, cached);
+        }
+
+        CompletableFuture<Page<UserSummary>> future = new CompletableFuture<>();
+        CompletableFuture<Page<UserSummary>> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        misses.increment();
+        long startGeneration = generation.get();
+        try {
+            Page<UserSummary> page = loader.get();
+            store(key, page, startGeneration);
+            future.complete(page);
+            return page;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Drops all cached results once the transaction that changed user data has committed.
+     *
+     * @param event the event describing the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Drops all cached results. Searches that are running at this moment do not cache their result.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private void store(SearchKey key, Page<UserSummary> page, long startGeneration) {
+        if (ttlNanos <= 0) {
+            return;
+        }
+        if (cache.size() >= maxEntries) {
+            long now = System.nanoTime();
+            cache.values().removeIf(entry -> now - entry.expiresAt() >= 0);
+            if (cache.size() >= maxEntries) {
+                return;
+            }
+        }
+        cache.put(key, new CachedPage(page, System.nanoTime() + ttlNanos));
+        if (generation.get() != startGeneration) {
+            cache.remove(key);
+        }
+    }
+
+    private static Page<UserSummary> await(CompletableFuture<Page<UserSummary>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("users.search.cache")
+                .description("Admin user searches by how they were answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record SearchKey(LocalDate dateOfBirth, String phoneNumber, String fullName, String email,
+                             Pageable pageable) {
+    }
+
+    private record CachedPage(Page<UserSummary> page, long expiresAt) {
+    }
+}
@@ -1,14 +1,35 @@
 package com.bank.api.techtask.service;
 
 import com.bank.api.techtask.config.JwtAuthenticationFilter;
+import com.bank.api.techtask.domain.dto.AccountSummary;
+import com.bank.api.techtask.domain.dto.VersionedBalance;
+import com.bank.api.techtask.domain.dto.UserCursor;
+import com.bank.api.techtask.domain.dto.UserNameMatch;
+import com.bank.api.techtask.domain.dto.UserSortKey;
+import com.bank.api.techtask.domain.dto.UserSummary;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
+import com.bank.api.techtask.domain.event.TransferCompleted;
+import com.bank.api.techtask.domain.event.UserDataChangedEvent;
 import com.bank.api.techtask.domain.model.Account;
 import com.bank.api.techtask.domain.model.User;
+import com.bank.api.techtask.domain.response.BalanceResponse;
+import com.bank.api.techtask.domain.response.CursorPage;
+import com.bank.api.techtask.domain.response.SliceResponse;
+import com.bank.api.techtask.domain.response.TransferHistoryEntry;
 import com.bank.api.techtask.exception.*;
+import com.bank.api.techtask.jfr.TransferEvent;
 import com.bank.api.techtask.repository.AccountRepository;
 import com.bank.api.techtask.repository.UserRepository;
+import com.bank.api.techtask.service.NotificationService.SecurityNotice;
+import com.bank.api.techtask.trace.RequestTrace;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,8 +38,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -26,22 +51,49 @@ import java.util.concurrent.locks.ReentrantLock;
 @Service
 public class UserService {
     private static final String USER_NOT_FOUND_WITH_ID = "User not found with id ";
+    private static final int MIN_NAME_QUERY_LENGTH = 3;
+    private static final int MAX_NAME_SEARCH_LIMIT = 100;
 
     private final UserRepository userRepository;
     private final JwtService jwtService;
     private final HttpServletRequest httpServletRequest;
     private final UserSpecifications userSpecifications;
     private final AccountRepository accountRepository;
+    private final UserNameSearch userNameSearch;
+    private final UserSearchCache userSearchCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final OutboxService outboxService;
+    private final BalanceReadModel balanceReadModel;
+    private final AccountSummaryCache accountSummaryCache;
+    private final TransferHistoryService transferHistoryService;
+    private final NotificationService notificationService;
+    private final BalanceEventHub balanceEventHub;
     private final ConcurrentHashMap<Long, Lock> accountLocks = new ConcurrentHashMap<>();
 
     @Autowired
     public UserService(UserRepository repository, JwtService jwtService, HttpServletRequest httpServletRequest,
-                       UserSpecifications userSpecifications, AccountRepository accountRepository) {
+                       UserSpecifications userSpecifications, AccountRepository accountRepository,
+                       UserNameSearch userNameSearch, UserSearchCache userSearchCache,
+                       ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                       OutboxService outboxService, BalanceReadModel balanceReadModel,
+                       AccountSummaryCache accountSummaryCache, TransferHistoryService transferHistoryService,
+                       NotificationService notificationService, BalanceEventHub balanceEventHub) {
         this.userRepository = repository;
         this.jwtService = jwtService;
         this.httpServletRequest = httpServletRequest;
         this.userSpecifications = userSpecifications;
         this.accountRepository = accountRepository;
+        this.userNameSearch = userNameSearch;
+        this.userSearchCache = userSearchCache;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.outboxService = outboxService;
+        this.balanceReadModel = balanceReadModel;
+        this.accountSummaryCache = accountSummaryCache;
+        this.transferHistoryService = transferHistoryService;
+        this.notificationService = notificationService;
+        this.balanceEventHub = balanceEventHub;
     }
 
     public User getByUsername(String username) {
@@ -54,13 +106,74 @@ public class UserService {
     }
 
     private Long getUserIdFromToken() {
+        return jwtService.extractUserId(getTokenFromHeader());
+    }
+
+    private String getTokenFromHeader() {
         String authHeader = httpServletRequest.getHeader(JwtAuthenticationFilter.HEADER_NAME);
         if (authHeader == null || !authHeader.startsWith(JwtAuthenticationFilter.BEARER_PREFIX)) {
             throw new JwtTokenException("JWT token not found in the request header.");
         }
 
-        String jwt = authHeader.substring(JwtAuthenticationFilter.BEARER_PREFIX.length());
-        return jwtService.extractUserId(jwt);
+        return authHeader.substring(JwtAuthenticationFilter.BEARER_PREFIX.length());
+    }
+
+    /**
+     * Returns the current user's balance from the {@link BalanceReadModel}. The account is taken from
+     * the token, so the database is not read unless the token predates the account claim.
+     *
+     * @return the balance and its freshness watermark
+     */
+    public BalanceResponse getBalance() {
+        return balanceReadModel.getBalance(getAccountIdFromToken());
+    }
+
+    /**
+     * Opens a stream of the current user's balance changes through the {@link BalanceEventHub}. The
+     * first event is the current balance from the {@link BalanceReadModel}.
+     *
+     * @return the emitter of the stream
+     */
+    public SseEmitter openBalanceEvents() {
+        Long accountId = getAccountIdFromToken();
+        return balanceEventHub.subscribe(accountId, () -> balanceReadModel.getBalance(accountId));
+    }
+
+    /**
+     * Returns the current user's account through the {@link AccountSummaryCache}. On a miss the account
+     * is read by its primary key, without loading the user.
+     *
+     * @return the ID, balance and initial balance of the account
+     */
+    public AccountSummary getAccount() {
+        Long accountId = getAccountIdFromToken();
+        return accountSummaryCache.get(accountId, () -> accountRepository.findSummaryById(accountId)
+                .orElseThrow(() -> new UserNotFoundException("Account not found with id " + accountId)));
+    }
+
+    /**
+     * Returns one page of the current user's transfers, newest first, see
+     * {@link TransferHistoryService#getStatement}.
+     *
+     * @param size the maximum number of transfers on the page
+     * @param cursor the continuation token of the previous page, or null for the first page
+     * @param from the first day of the period, or null
+     * @param to the last day of the period, inclusive, or null
+     * @return the page and the continuation token for the next one
+     */
+    public CursorPage<TransferHistoryEntry> getTransfers(int size, String cursor, LocalDate from, LocalDate to) {
+        return transferHistoryService.getStatement(getAccountIdFromToken(), size, cursor, from, to);
+    }
+
+    private Long getAccountIdFromToken() {
+        String jwt = getTokenFromHeader();
+        Long accountId = jwtService.extractAccountId(jwt);
+        if (accountId == null) {
+            Long userId = jwtService.extractUserId(jwt);
+            accountId = accountRepository.findIdByUserId(userId)
+                    .orElseThrow(() -> new UserNotFoundException("Account not found for user with id " + userId));
+        }
+        return accountId;
     }
 
     @Transactional
@@ -78,8 +191,11 @@ public class UserService {
             throw new DeleteException("User already doesn't have an email address.");
         }
 
+        String removedEmail = user.getEmail();
         user.setEmail(null);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(List.of(userId)));
+        notificationService.notifySecurity(SecurityNotice.EMAIL_REMOVED, user.getUsername(), removedEmail);
     }
 
     @Transactional
@@ -99,6 +215,8 @@ public class UserService {
 
         user.setPhoneNumber(null);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(List.of(userId)));
+        notificationService.notifySecurity(SecurityNotice.PHONE_NUMBER_REMOVED, user.getUsername(), user.getEmail());
     }
 
     @Transactional
@@ -116,6 +234,8 @@ public class UserService {
 
         user.setPhoneNumber(parsedPhoneNumber);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(List.of(userId)));
+        notificationService.notifySecurity(SecurityNotice.PHONE_NUMBER_CHANGED, user.getUsername(), user.getEmail());
     }
 
     @Transactional
@@ -129,28 +249,158 @@ public class UserService {
             throw new EmailInUseException("User with this email already exists.");
         }
 
+        String previousEmail = user.getEmail();
         user.setEmail(email);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(List.of(userId)));
+        // the previous address is told too, so a hijacked account does not go unnoticed
+        notificationService.notifySecurity(SecurityNotice.EMAIL_CHANGED, user.getUsername(), previousEmail, email);
     }
 
+    /**
+     * Returns one page of user summaries. Identical concurrent searches share one query and recent
+     * results are reused, see {@link UserSearchCache}. The method is deliberately not transactional,
+     * so callers waiting for a shared result do not hold a database connection.
+     */
+    public Page<UserSummary> getAllUsers(Date dateOfBirth, String phoneNumber, String fullName, String email, Pageable pageable, Sort sort) {
+        Specification<User> spec = searchSpecification(dateOfBirth, phoneNumber, fullName, email);
+
+        Pageable sortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+        return userSearchCache.get(dateOfBirth, phoneNumber, fullName, email, sortedPageable,
+                () -> userRepository.findSummaries(spec, sortedPageable));
+    }
+
+    /**
+     * Returns one page of user summaries in keyset (seek) order. Unlike offset paging, every page costs the
+     * same index range read regardless of how deep into the listing it is.
+     *
+     * @param size the maximum number of users on the page
+     * @param sortKey the sort key, ignored when a cursor is given
+     * @param direction the sort direction, ignored when a cursor is given
+     * @param cursor the continuation token of the previous page, or null for the first page
+     * @return the page and the continuation token for the next one
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> getAllUsersAfter(Date dateOfBirth, String phoneNumber, String fullName,
+                                                    String email, int size, UserSortKey sortKey,
+                                                    Sort.Direction direction, String cursor) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        UserCursor after = cursor == null ? null : UserCursor.decode(cursor);
+        if (after != null) {
+            sortKey = after.getSortKey();
+            direction = after.getDirection();
+        }
+
+        Specification<User> spec = searchSpecification(dateOfBirth, phoneNumber, fullName, email);
+        List<UserSummary> users = userRepository.findAllAfter(spec, sortKey, direction, after, size + 1);
+
+        String nextCursor = null;
+        if (users.size() > size) {
+            users = users.subList(0, size);
+            nextCursor = UserCursor.after(sortKey, direction, users.get(size - 1)).encode();
+        }
+        return new CursorPage<>(users, nextCursor);
+    }
+
+    /**
+     * Returns one slice of user summaries without counting all matching rows.
+     *
+     * @param pageable the page number and size
+     * @param sort the sort
+     * @param withApproximateTotal whether to add the planner's estimate of the number of matching users
+     * @return the slice of user summaries
+     */
     @Transactional(readOnly = true)
-    public Page<User> getAllUsers(Date dateOfBirth, String phoneNumber, String fullName, String email, Pageable pageable, Sort sort) {
-        Specification<User> spec = Specification.where(userSpecifications.hasDateOfBirthAfter(dateOfBirth))
+    public SliceResponse<UserSummary> getAllUsersSlice(Date dateOfBirth, String phoneNumber, String fullName,
+                                                       String email, Pageable pageable, Sort sort,
+                                                       boolean withApproximateTotal) {
+        Specification<User> spec = searchSpecification(dateOfBirth, phoneNumber, fullName, email);
+
+        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+        Slice<UserSummary> users = userRepository.findSlice(spec, pageable);
+        Long approximateTotal = withApproximateTotal
+                ? userRepository.estimateCount(dateOfBirth, phoneNumber, fullName, email)
+                : null;
+        return new SliceResponse<>(users.getContent(), users.getNumber(), users.getSize(), users.hasNext(),
+                approximateTotal);
+    }
+
+    /**
+     * Finds users whose full name contains the query or is similar to it, ignoring case.
+     *
+     * @param query the name or part of it, at least three characters long
+     * @param limit the maximum number of users to return, from 1 to 100
+     * @return the matching users, most similar first
+     */
+    public List<UserNameMatch> searchUsersByName(String query, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.length() < MIN_NAME_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at least " + MIN_NAME_QUERY_LENGTH
+                    + " characters long");
+        }
+        if (limit < 1 || limit > MAX_NAME_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_NAME_SEARCH_LIMIT);
+        }
+        return userNameSearch.search(trimmed, limit);
+    }
+
+    private Specification<User> searchSpecification(Date dateOfBirth, String phoneNumber, String fullName, String email) {
+        return Specification.where(userSpecifications.hasDateOfBirthAfter(dateOfBirth))
                 .and(userSpecifications.hasPhoneNumber(phoneNumber))
                 .and(userSpecifications.hasFullNameStartingWith(fullName))
                 .and(userSpecifications.hasEmail(email));
-
-        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
-        return userRepository.findAll(spec, pageable);
     }
 
+    /**
+     * Transfers money from the current user's account to the recipient account.
+     * The duration of every attempt is recorded in the {@code bank.transfer} timer, tagged with
+     * its outcome, and in a {@link TransferEvent} when flight recording is enabled for it.
+     *
+     * @param recipientAccountId the ID of the recipient account
+     * @param amount the amount to transfer
+     */
     @Transactional
     public void moneyTransfer(Long recipientAccountId, BigDecimal amount) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        TransferEvent event = new TransferEvent();
+        event.begin();
+        String outcome = "error";
+        try {
+            transfer(recipientAccountId, amount, event);
+            outcome = "success";
+        } catch (InsufficientBalanceException e) {
+            outcome = "insufficient_balance";
+            throw e;
+        } catch (TransferException e) {
+            outcome = "rejected";
+            throw e;
+        } catch (UserNotFoundException e) {
+            outcome = "user_not_found";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("bank.transfer")
+                    .description("Money transfers by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            event.end();
+            if (event.shouldCommit()) {
+                event.setRecipientAccountId(recipientAccountId);
+                event.setAmount(amount);
+                event.setOutcome(outcome);
+                event.commit();
+            }
+        }
+    }
+
+    private void transfer(Long recipientAccountId, BigDecimal amount, TransferEvent event) {
         Long userId = getUserIdFromToken();
 
         User senderUser = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND_WITH_ID + userId));
         Account senderAccount = senderUser.getAccount();
+        event.setSenderAccountId(senderAccount.getId());
 
         if (recipientAccountId.equals(senderAccount.getId())) {
             throw new TransferException("You cannot transfer money to yourself");
@@ -172,9 +422,10 @@ public class UserService {
             secondLock = senderLock;
         }
 
-        firstLock.lock();
+        long lockWait = lockTimed(firstLock);
         try {
-            secondLock.lock();
+            lockWait += lockTimed(secondLock);
+            event.setLockWait(lockWait);
             try {
                 performTransfer(senderAccount, recipientAccount, amount);
             } finally {
@@ -185,15 +436,56 @@ public class UserService {
         }
     }
 
+    private static long lockTimed(Lock lock) {
+        long start = System.nanoTime();
+        lock.lock();
+        long wait = System.nanoTime() - start;
+        RequestTrace.recordLockWait(wait);
+        return wait;
+    }
+
+    /**
+     * Moves the money with two relative updates, so a deposit or accrual committed since the accounts
+     * were loaded is never overwritten. The rows are updated in account ID order, the order in which
+     * deposits and accrual lock them too. The new balances are read back from the database, as the
+     * loaded accounts may be stale, together with the versions the updates gave the rows.
+     */
     private void performTransfer(Account senderAccount, Account recipientAccount, BigDecimal amount) {
-        if (senderAccount.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientBalanceException("Insufficient balance");
+        Long senderId = senderAccount.getId();
+        Long recipientId = recipientAccount.getId();
+        if (senderId < recipientId) {
+            debit(senderId, amount);
+            accountRepository.credit(recipientId, amount);
+        } else {
+            accountRepository.credit(recipientId, amount);
+            debit(senderId, amount);
         }
 
-        senderAccount.setBalance(senderAccount.getBalance().subtract(amount));
-        recipientAccount.setBalance(recipientAccount.getBalance().add(amount));
+        List<VersionedBalance> accounts = accountRepository.findBalancesByIdIn(List.of(senderId, recipientId));
+        VersionedBalance senderBalance = balanceOf(accounts, senderId);
+        VersionedBalance recipientBalance = balanceOf(accounts, recipientId);
+        TransferCompleted transfer = new TransferCompleted(senderId, recipientId, amount,
+                senderBalance.getBalance(), recipientBalance.getBalance(), Instant.now());
+        transferHistoryService.record(transfer);
+        outboxService.recordTransfer(transfer);
+        notificationService.notifyTransfer(senderAccount.getUser(), recipientAccount.getUser(), transfer);
+        eventPublisher.publishEvent(new BalanceChangedEvent(List.of(
+                new AccountBalance(senderId, senderBalance.getBalance(), senderBalance.getVersion()),
+                new AccountBalance(recipientId, recipientBalance.getBalance(), recipientBalance.getVersion()))));
+    }
+
+    private void debit(Long accountId, BigDecimal amount) {
+        if (accountRepository.debit(accountId, amount) == 0) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+    }
 
-        accountRepository.save(senderAccount);
-        accountRepository.save(recipientAccount);
+    private static VersionedBalance balanceOf(List<VersionedBalance> accounts, Long accountId) {
+        for (VersionedBalance account : accounts) {
+            if (account.getId().equals(accountId)) {
+                return account;
+            }
+        }
+        throw new TransferException("Account not found");
     }
 }
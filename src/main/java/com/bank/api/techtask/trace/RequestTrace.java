@@ -0,0 +1,166 @@
+package com.bank.api.techtask.trace;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Timings collected for the HTTP request handled by the current thread.
+ * <p>
+ * A trace is opened by {@link RequestTraceFilter} and stays bound to the request thread until the
+ * response is complete. The static {@code record*} methods may be called from any layer and do
+ * nothing when no request is being traced, for example on scheduler threads, so callers need no
+ * reference to the trace itself. A trace is confined to a single thread and is not thread safe.
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final String traceId;
+    private final long startNanos;
+    private int statements;
+    private long jdbcNanos;
+    private long connectionWaitNanos;
+    private long lockWaitNanos;
+    private long authNanos;
+    private int tokenParses;
+
+    private RequestTrace(String traceId) {
+        this.traceId = traceId;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Opens a trace for the current thread.
+     *
+     * @return the new trace
+     */
+    static RequestTrace begin() {
+        RequestTrace trace = new RequestTrace(UUID.randomUUID().toString().replace("-", ""));
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Closes the trace of the current thread.
+     */
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the trace of the current thread.
+     *
+     * @return the trace, or {@code null} if no request is being traced
+     */
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Records one executed SQL statement.
+     *
+     * @param nanos the time the JDBC call took
+     */
+    public static void recordStatement(long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.statements++;
+            trace.jdbcNanos += nanos;
+        }
+    }
+
+    /**
+     * Records the time spent obtaining a connection from the pool.
+     *
+     * @param nanos the wait
+     */
+    public static void recordConnectionWait(long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.connectionWaitNanos += nanos;
+        }
+    }
+
+    /**
+     * Records the time spent waiting for an application lock.
+     *
+     * @param nanos the wait
+     */
+    public static void recordLockWait(long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.lockWaitNanos += nanos;
+        }
+    }
+
+    /**
+     * Records the time spent authenticating the request token.
+     *
+     * @param nanos the time taken
+     */
+    public static void recordAuthentication(long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.authNanos += nanos;
+        }
+    }
+
+    /**
+     * Records one parse and signature check of a JWT.
+     */
+    public static void recordTokenParse() {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.tokenParses++;
+        }
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    public long getLockWaitNanos() {
+        return lockWaitNanos;
+    }
+
+    public long getAuthNanos() {
+        return authNanos;
+    }
+
+    public int getTokenParses() {
+        return tokenParses;
+    }
+
+    /**
+     * Renders the timings as {@code key=value} pairs, durations in milliseconds.
+     *
+     * @return the summary
+     */
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "traceId=%s totalMs=%.2f sql=%d jdbcMs=%.2f connectionWaitMs=%.2f lockWaitMs=%.2f authMs=%.2f"
+                        + " jwtParses=%d",
+                traceId, millis(getElapsedNanos()), statements, millis(jdbcNanos), millis(connectionWaitNanos),
+                millis(lockWaitNanos), millis(authNanos), tokenParses);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
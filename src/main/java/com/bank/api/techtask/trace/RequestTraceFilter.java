@@ -0,0 +1,104 @@
+package com.bank.api.techtask.trace;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Opens a {@link RequestTrace} for every request, ahead of the security filters so that token
+ * authentication is included.
+ * <p>
+ * The trace id is put into the logging MDC as {@code traceId} and returned in the
+ * {@value #TRACE_ID_HEADER} header. A request slower than the threshold is reported in a single
+ * summary line. In debug mode the summary is also returned in the {@value #TRACE_HEADER} header
+ * of every response; it is added when the response is about to be committed, so it covers the
+ * work done up to that point.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "request.trace.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+    public static final String TRACE_HEADER = "X-Request-Trace";
+    public static final String TRACE_ID_MDC_KEY = "traceId";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestTraceFilter.class);
+
+    private final long slowThresholdNanos;
+    private final boolean debugHeader;
+
+    /**
+     * Constructs a new RequestTraceFilter.
+     *
+     * @param slowThreshold the duration from which a request is reported
+     * @param debugHeader whether the summary is returned in a response header
+     */
+    public RequestTraceFilter(@Value("${request.trace.slow-threshold:500ms}") Duration slowThreshold,
+                              @Value("${request.trace.header:false}") boolean debugHeader) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.debugHeader = debugHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.begin();
+        MDC.put(TRACE_ID_MDC_KEY, trace.getTraceId());
+        response.setHeader(TRACE_ID_HEADER, trace.getTraceId());
+        TraceHeaderResponse tracedResponse = debugHeader ? new TraceHeaderResponse(response, trace) : null;
+        try {
+            filterChain.doFilter(request, tracedResponse != null ? tracedResponse : response);
+        } finally {
+            if (tracedResponse != null && !response.isCommitted()) {
+                tracedResponse.addTraceHeader();
+            }
+            if (trace.getElapsedNanos() >= slowThresholdNanos) {
+                logger.warn("Slow request: method={} path={} status={} {}", request.getMethod(),
+                        request.getRequestURI(), response.getStatus(), trace.summary());
+            }
+            MDC.remove(TRACE_ID_MDC_KEY);
+            RequestTrace.end();
+        }
+    }
+
+    private static final class TraceHeaderResponse extends OnCommittedResponseWrapper {
+
+        private final RequestTrace trace;
+        private boolean headerAdded;
+
+        TraceHeaderResponse(HttpServletResponse response, RequestTrace trace) {
+            super(response);
+            this.trace = trace;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            addTraceHeader();
+        }
+
+        void addTraceHeader() {
+            if (!headerAdded) {
+                headerAdded = true;
+                setHeader(TRACE_HEADER, trace.summary());
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.bank.api.techtask.trace;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source that reports JDBC work to the current {@link RequestTrace}.
+ * <p>
+ * The time spent in {@code getConnection} is recorded as connection wait, and every
+ * {@code execute*} call on a statement as one statement with its duration. Outside a traced
+ * request the calls are passed through without timing.
+ */
+class TracingDataSource extends DelegatingDataSource {
+
+    TracingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        RequestTrace.recordConnectionWait(System.nanoTime() - start);
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        RequestTrace.recordConnectionWait(System.nanoTime() - start);
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(),
+                new Class<?>[] {type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class
+                && (method.getName().equals("equals") || method.getName().equals("hashCode"));
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = TracingDataSource.invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, new StatementHandler(statement));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, new StatementHandler(statement));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, new StatementHandler(statement));
+            }
+            return result;
+        }
+    }
+
+    private record StatementHandler(Statement target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            if (!method.getName().startsWith("execute") || RequestTrace.current() == null) {
+                return TracingDataSource.invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return TracingDataSource.invoke(target, method, args);
+            } finally {
+                RequestTrace.recordStatement(System.nanoTime() - start);
+            }
+        }
+    }
+}
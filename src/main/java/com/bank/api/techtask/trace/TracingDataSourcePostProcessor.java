@@ -0,0 +1,22 @@
+package com.bank.api.techtask.trace;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the application data source in a {@link TracingDataSource}.
+ */
+@Component
+@ConditionalOnProperty(name = "request.trace.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+            return new TracingDataSource(dataSource);
+        }
+        return bean;
+    }
+}
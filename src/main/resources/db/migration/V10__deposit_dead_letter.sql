@@ -0,0 +1,9 @@
+-- Inbound deposits that could not be credited, such as deposits to an unknown account. They are not
+-- claimed in processed_deposit, so once the cause is fixed they can be replayed to the deposits topic.
+CREATE TABLE deposit_dead_letter (
+                                     message_id VARCHAR(100) PRIMARY KEY,
+                                     account_id BIGINT NOT NULL,
+                                     amount NUMERIC(19,2) NOT NULL,
+                                     reason VARCHAR(100) NOT NULL,
+                                     received_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,4 @@
+-- Change counter of an account. Every statement that changes the balance increments it while it holds
+-- the row lock, so copies of balances kept outside the database, such as the balance read model, can
+-- tell which of two balances of an account is the newer one in whatever order they arrive.
+ALTER TABLE account ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
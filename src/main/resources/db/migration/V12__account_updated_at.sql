@@ -0,0 +1,4 @@
+-- When the balance of an account last changed, so the balance read model of every instance can pick up
+-- the changes made by other instances without reading the whole table. Set by every statement that
+-- changes the balance; existing rows count as changed now.
+ALTER TABLE account ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
@@ -0,0 +1,3 @@
+-- Serves the read model's query for the accounts changed since its last refresh. Built CONCURRENTLY,
+-- so Flyway runs this script outside a transaction and the table stays writable meanwhile.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS account_updated_at_idx ON account (updated_at);
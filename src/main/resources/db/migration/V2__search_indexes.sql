@@ -0,0 +1,22 @@
+-- Indexes for the admin user search (UserSpecifications filters and sort keys),
+-- the sign-up uniqueness check and sorting by balance.
+--
+-- Every statement builds its index CONCURRENTLY, so the tables stay writable while the
+-- migration runs on a live database. Flyway detects CONCURRENTLY and runs this script outside
+-- of a transaction. If a build fails (for example on duplicate phone numbers) PostgreSQL
+-- leaves an INVALID index behind: drop it, fix the data and re-run the migration.
+
+-- LIKE 'prefix%' on full_name; text_pattern_ops works regardless of the database collation.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_full_name_pattern_idx ON users (full_name text_pattern_ops);
+
+-- ORDER BY full_name, with the id tie-breaker used by keyset paging.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_full_name_id_idx ON users (full_name, id);
+
+-- date_of_birth >= ? and ORDER BY date_of_birth, id.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_date_of_birth_id_idx ON users (date_of_birth, id);
+
+-- phone_number = ? lookups; also enforces that a phone number belongs to one user only.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS users_phone_number_key ON users (phone_number);
+
+-- ORDER BY account.balance.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS account_balance_idx ON account (balance);
@@ -0,0 +1,3 @@
+-- Trigram matching for the fuzzy user name search (TrigramUserNameSearch).
+-- pg_trgm is a trusted extension since PostgreSQL 13, so the database owner may create it.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,3 @@
+-- GIN trigram index for the fuzzy user name search: serves both full_name ILIKE '%query%'
+-- and query <% full_name. Built CONCURRENTLY, see V2 on recovering from a failed build.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS users_full_name_trgm_idx ON users USING gin (full_name gin_trgm_ops);
@@ -0,0 +1,6 @@
+-- Top balances for the admin listing: ORDER BY account.balance, account.id walks this index
+-- (backwards for DESC) and joins users by primary key, stopping after one page. user_id is
+-- included so the account side is read from the index alone. Replaces account_balance_idx.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS account_balance_id_idx ON account (balance, id) INCLUDE (user_id);
+
+DROP INDEX CONCURRENTLY IF EXISTS account_balance_idx;
@@ -0,0 +1,9 @@
+-- Transactional outbox: rows are written in the same transaction as the balance change they
+-- describe and deleted by the relay once Kafka has acknowledged them. The relay reads in id order.
+CREATE TABLE outbox_event (
+                              id BIGSERIAL PRIMARY KEY,
+                              aggregate_id BIGINT NOT NULL,
+                              event_type VARCHAR(50) NOT NULL,
+                              payload TEXT NOT NULL,
+                              created_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Ids of the inbound deposit messages already applied, so a replayed message is not credited twice.
+-- Rows are inserted in the same transaction as the balance credit; processed_at allows pruning
+-- once a message can no longer be replayed.
+CREATE TABLE processed_deposit (
+                                   message_id VARCHAR(100) PRIMARY KEY,
+                                   account_id BIGINT NOT NULL,
+                                   amount NUMERIC(19,2) NOT NULL,
+                                   processed_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,32 @@
+-- Account statements: one row per account and transfer, the amount negative on the sender's row.
+-- Range partitioned by month on created_at, so a statement for a period reads only the partitions of
+-- its months and retention detaches whole months instead of deleting rows. The primary key has to
+-- contain the partition key. Partitions for the coming months are created by the application
+-- (TransferHistoryPartitions); the ones for the current and the next three months are created here.
+CREATE TABLE transfer_history (
+                                  id BIGSERIAL,
+                                  account_id BIGINT NOT NULL,
+                                  counterparty_account_id BIGINT NOT NULL,
+                                  amount NUMERIC(19,2) NOT NULL,
+                                  balance_after NUMERIC(19,2) NOT NULL,
+                                  created_at TIMESTAMP NOT NULL,
+                                  PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- WHERE account_id = ? AND created_at <= ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+-- walks this index backwards and reads the statement lines from the index alone. The plain bound on
+-- created_at is what lets the planner skip the partitions of later months; the row comparison does not.
+CREATE INDEX transfer_history_account_created_id_idx ON transfer_history (account_id, created_at, id)
+    INCLUDE (counterparty_account_id, amount, balance_after);
+
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', now())::date;
+BEGIN
+    FOR i IN 0..3 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF transfer_history FOR VALUES FROM (%L) TO (%L)',
+                       'transfer_history_' || to_char(month_start, '"y"YYYY"m"MM'),
+                       month_start, (month_start + interval '1 month')::date);
+        month_start := (month_start + interval '1 month')::date;
+    END LOOP;
+END $$;
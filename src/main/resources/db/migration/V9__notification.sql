@@ -0,0 +1,17 @@
+-- Emails waiting to be sent. Rows are inserted in the same transaction as the change they report and
+-- deleted once the mail server has accepted the message. next_attempt_at doubles as the lease of the
+-- worker sending the row and as the retry time after a failure; failed_at is set when the retries are
+-- exhausted, and the row is kept for inspection.
+CREATE TABLE notification (
+                              id BIGSERIAL PRIMARY KEY,
+                              recipient VARCHAR(255) NOT NULL,
+                              subject VARCHAR(255) NOT NULL,
+                              body TEXT NOT NULL,
+                              attempts INT NOT NULL DEFAULT 0,
+                              next_attempt_at TIMESTAMP NOT NULL,
+                              last_error VARCHAR(500),
+                              created_at TIMESTAMP NOT NULL,
+                              failed_at TIMESTAMP
+);
+
+CREATE INDEX notification_due_idx ON notification (next_attempt_at) WHERE failed_at IS NULL;
@@ -0,0 +1,46 @@
+package com.bank.api.techtask;
+
+import com.bank.api.techtask.domain.dto.SignUpRequest;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Sign-up requests for tests. The email is derived from the username, so a test only has to keep the
+ * username and the phone number unique.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    /**
+     * Returns a valid sign-up request with an initial sum of 100.00.
+     *
+     * @param username the username, also the local part of the email
+     * @param phoneNumber the phone number
+     * @return the request
+     */
+    public static SignUpRequest signUpRequest(String username, String phoneNumber) {
+        return signUpRequest(username, "Test User", phoneNumber);
+    }
+
+    /**
+     * Returns a valid sign-up request with the given full name and an initial sum of 100.00.
+     *
+     * @param username the username, also the local part of the email
+     * @param fullName the full name
+     * @param phoneNumber the phone number
+     * @return the request
+     */
+    public static SignUpRequest signUpRequest(String username, String fullName, String phoneNumber) {
+        SignUpRequest request = new SignUpRequest();
+        request.setUsername(username);
+        request.setFullName(fullName);
+        request.setDateOfBirth(new Date(0));
+        request.setEmail(username + "@example.com");
+        request.setPassword("password123");
+        request.setPhoneNumber(phoneNumber);
+        request.setInitialSum(new BigDecimal("100.00"));
+        return request;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bank.api.techtask.aspect;
+
+import com.bank.api.techtask.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ServiceAspectTest {
+
+    private static final String SEARCH_METHOD = "UserService.searchUsersByName(String,int)";
+
+    @Autowired
+    private ServiceAspect serviceAspect;
+
+    @Autowired
+    private ServiceInstrumentationEndpoint endpoint;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    public void setUp() {
+        serviceAspect.reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        serviceAspect.configure(true, 0, Duration.ofMillis(500));
+    }
+
+    @Test
+    void testServiceCallsAreTimedPerMethod() {
+        userService.searchUsersByName("abc", 5);
+        userService.searchUsersByName("abd", 5);
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsersByName("ab", 5));
+
+        Map<String, Object> timings = serviceAspect.snapshot().get(SEARCH_METHOD);
+
+        assertEquals(3L, timings.get("count"));
+        assertEquals(1L, timings.get("errors"));
+    }
+
+    @Test
+    void testDisabledInstrumentationRecordsNothing() {
+        endpoint.configure(false, null, null);
+
+        userService.searchUsersByName("abc", 5);
+
+        assertFalse(serviceAspect.isEnabled());
+        assertNull(serviceAspect.snapshot().get(SEARCH_METHOD));
+    }
+
+    @Test
+    void testEndpointKeepsSettingsThatAreNotGiven() {
+        Map<String, Object> settings = endpoint.configure(null, 0.25, null);
+
+        assertEquals(true, settings.get("enabled"));
+        assertEquals(0.25, settings.get("sampleRate"));
+        assertEquals(500L, settings.get("slowThresholdMs"));
+        assertThrows(IllegalArgumentException.class, () -> endpoint.configure(null, 1.5, null));
+    }
+
+    @Test
+    void testHistogramReportsBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100), false);
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3), false);
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(40), true);
+
+        Map<String, Object> snapshot = histogram.snapshot();
+
+        assertEquals(100L, snapshot.get("count"));
+        assertEquals(1L, snapshot.get("errors"));
+        // 100 us falls into the [64 us, 128 us) bucket
+        assertEquals(0.128, snapshot.get("p50Ms"));
+        assertEquals(0.128, snapshot.get("p90Ms"));
+        // 3 ms falls into the [2.048 ms, 4.096 ms) bucket
+        assertEquals(4.096, snapshot.get("p99Ms"));
+        assertEquals(40.0, snapshot.get("maxMs"));
+    }
+}
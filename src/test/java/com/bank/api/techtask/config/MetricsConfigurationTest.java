@@ -0,0 +1,65 @@
+package com.bank.api.techtask.config;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.repository.UserRepository;
+import com.bank.api.techtask.service.AuthenticationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsConfigurationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testPrometheusScrapeExposesHotPathHistograms() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("metrics_sender", "+375293000001"));
+        authenticationService.signUp(signUpRequest("metrics_recipient", "+375293000002"));
+        Long recipientAccountId = userRepository.findByUsername("metrics_recipient").orElseThrow()
+                .getAccount().getId();
+
+        mockMvc.perform(post("/api/users/transfer")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                        .param("recipientAccountId", recipientAccountId.toString())
+                        .param("amount", "10.00"))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("bank_transfer_seconds_bucket{application=\"techtask\",outcome=\"success\""));
+        assertTrue(scrape.contains("bank_jwt_verify_seconds_bucket"));
+        assertTrue(scrape.contains("bank_password_hash_seconds_bucket"));
+        assertTrue(scrape.contains("bank_jwt_revoked_tokens"));
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds_bucket"));
+    }
+
+    @Test
+    void testOtherActuatorEndpointsStayProtected() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+    }
+}
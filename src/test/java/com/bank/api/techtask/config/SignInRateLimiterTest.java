@@ -0,0 +1,132 @@
+package com.bank.api.techtask.config;
+
+import com.bank.api.techtask.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SignInRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testBurstThenOneAttemptPerRefillPeriod() {
+        SignInRateLimiter limiter = limiter(1000);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("gcra_user", null, start);
+        }
+        assertEquals(12, retryAfter(limiter, "gcra_user", null, start));
+        assertEquals(7, retryAfter(limiter, "gcra_user", null, start + 5 * SECOND));
+        assertEquals(7, retryAfter(limiter, "gcra_user", null, start + 5 * SECOND + SECOND / 2));
+        assertEquals(1, retryAfter(limiter, "gcra_user", null, start + 12 * SECOND - 1));
+
+        limiter.acquire("gcra_user", null, start + 12 * SECOND);
+        assertEquals(12, retryAfter(limiter, "gcra_user", null, start + 12 * SECOND));
+
+        // a refilled bucket holds no more than the burst, however long it was idle
+        long later = start + 3600 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("GCRA_USER", null, later);
+        }
+        assertEquals(12, retryAfter(limiter, "gcra_user", null, later));
+    }
+
+    @Test
+    void testUsernameAndClientIpAreLimitedSeparately() {
+        SignInRateLimiter limiter = limiter(1000);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("ip_user" + i, "198.51.100.1", now);
+        }
+        assertEquals(3, retryAfter(limiter, "ip_user5", "198.51.100.1", now));
+        // the rejected attempt consumed nothing of the username's bucket
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("ip_user5", "198.51.100." + (10 + i), now);
+        }
+        assertEquals(12, retryAfter(limiter, "ip_user5", "198.51.100.20", now));
+    }
+
+    @Test
+    void testFloodOfKeysDoesNotResetBucketsInDebt() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SignInRateLimiter limiter = limiter(10, meterRegistry);
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("victim", null, start);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire("flood" + i, null, start + i * SECOND / 10);
+        }
+
+        assertEquals(2, retryAfter(limiter, "victim", null, start + 10 * SECOND));
+        assertEquals(101, meterRegistry.get("bank.signin.buckets").gauge().value());
+
+        // once the flood has refilled, the full buckets are evicted
+        limiter.acquire("after_flood", null, start + 120 * SECOND);
+        assertEquals(1, meterRegistry.get("bank.signin.buckets").gauge().value());
+    }
+
+    @Test
+    void testExhaustedSignInIsAnsweredWithTooManyRequests() throws Exception {
+        String body = "{\"username\":\"rate_limited_probe\",\"password\":\"wrong-password\"}";
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(signIn(body)).andExpect(status().isForbidden());
+        }
+
+        mockMvc.perform(signIn(body))
+                .andExpect(status().isTooManyRequests())
+                // at most one refill period of the username bucket, less the time the attempts took
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, matchesPattern("[1-9]|1[0-2]")))
+                .andExpect(jsonPath("$.message").value("Too many attempts, try again later"));
+    }
+
+    private static MockHttpServletRequestBuilder signIn(String body) {
+        return post("/api/auth/signin")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body)
+                .with((MockHttpServletRequest request) -> {
+                    request.setRemoteAddr("203.0.113.26");
+                    return request;
+                });
+    }
+
+    private static long retryAfter(SignInRateLimiter limiter, String username, String clientIp, long now) {
+        return assertThrows(TooManyRequestsException.class, () -> limiter.acquire(username, clientIp, now))
+                .getRetryAfterSeconds();
+    }
+
+    private static SignInRateLimiter limiter(int maxBuckets) {
+        return limiter(maxBuckets, new SimpleMeterRegistry());
+    }
+
+    private static SignInRateLimiter limiter(int maxBuckets, SimpleMeterRegistry meterRegistry) {
+        return new SignInRateLimiter(5, Duration.ofSeconds(12), 5, Duration.ofSeconds(3), maxBuckets,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,264 @@
+package com.bank.api.techtask.controller;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.domain.model.User;
+import com.bank.api.techtask.repository.UserRepository;
+import com.bank.api.techtask.service.AuthenticationService;
+import com.bank.api.techtask.trace.RequestTraceFilter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives every endpoint of {@link AuthController} and {@link UserController} through the full filter
+ * chain and checks the number of SQL statements and JWT parses reported in the request trace header.
+ * <p>
+ * The budgets are the current counts. A change that adds a round trip to one of these requests must
+ * lower some other count or raise the budget here on purpose.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointQueryBudgetTest {
+
+    private static final AtomicInteger USER_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testSignUpBudget() throws Exception {
+        int n = USER_SEQUENCE.incrementAndGet();
+        String body = """
+                {"username":"budget_signup%1$d","fullName":"Budget Signup","dateOfBirth":"1990-01-01",
+                 "email":"budget_signup%1$d@example.com","password":"password123",
+                 "phoneNumber":"+37529510%2$04d","initialSum":100.00}
+                """.formatted(n, n);
+
+        assertBudget(post("/api/auth/signup").contentType(MediaType.APPLICATION_JSON).content(body),
+                status().isOk(), 5, 0);
+    }
+
+    @Test
+    void testSignInBudget() throws Exception {
+        String username = signUp().getUsername();
+        String body = """
+                {"username":"%s","password":"password123"}
+                """.formatted(username);
+
+        // the user, then the security notice
+        assertBudget(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON).content(body),
+                status().isOk(), 2, 0);
+    }
+
+    @Test
+    void testLogoutBudget() throws Exception {
+        assertBudget(authorized(post("/api/auth/logout"), signUp()), status().isOk(), 1, 3);
+    }
+
+    @Test
+    void testDeleteUserBudget() throws Exception {
+        JwtAuthenticationResponse admin = signUp();
+        Long victimId = idOf(signUp());
+
+        assertBudget(authorized(delete("/api/users/delete/" + victimId), admin), status().isOk(), 7, 3);
+    }
+
+    @Test
+    void testUpdateUserBudget() throws Exception {
+        JwtAuthenticationResponse admin = signUp();
+        JwtAuthenticationResponse target = signUp();
+        String body = """
+                {"username":"%1$s","fullName":"Budget User","dateOfBirth":"1990-01-01",
+                 "email":"%1$s@example.org","password":"password123"}
+                """.formatted(target.getUsername());
+
+        // the uniqueness check of the new username and email is one query
+        assertBudget(authorized(put("/api/users/update/" + idOf(target)), admin)
+                .contentType(MediaType.APPLICATION_JSON).content(body), status().isOk(), 6, 3);
+    }
+
+    @Test
+    void testDeleteEmailBudget() throws Exception {
+        // each contact change below also stores one security notice
+        assertBudget(authorized(delete("/api/users/delete/email"), signUp()), status().isOk(), 6, 4);
+    }
+
+    @Test
+    void testDeletePhoneNumberBudget() throws Exception {
+        assertBudget(authorized(delete("/api/users/delete/phone-number"), signUp()), status().isOk(), 6, 4);
+    }
+
+    @Test
+    void testUpdatePhoneNumberBudget() throws Exception {
+        String body = """
+                {"phoneNumber":"+37529520%04d"}
+                """.formatted(USER_SEQUENCE.incrementAndGet());
+
+        assertBudget(authorized(patch("/api/users/update/phone-number"), signUp())
+                .contentType(MediaType.APPLICATION_JSON).content(body), status().isOk(), 7, 4);
+    }
+
+    @Test
+    void testUpdateEmailBudget() throws Exception {
+        String body = """
+                {"email":"budget_email%d@example.org"}
+                """.formatted(USER_SEQUENCE.incrementAndGet());
+
+        assertBudget(authorized(patch("/api/users/update/email"), signUp())
+                .contentType(MediaType.APPLICATION_JSON).content(body), status().isOk(), 7, 4);
+    }
+
+    @Test
+    void testUserPageBudget() throws Exception {
+        JwtAuthenticationResponse admin = signUp();
+
+        assertBudget(authorized(get("/api/users/all").param("email", emailOf(admin)).param("size", "5")
+                .param("sortBy", "balance").param("sortDirection", "desc"), admin), status().isOk(), 2, 3);
+    }
+
+    @Test
+    void testUserSliceBudget() throws Exception {
+        JwtAuthenticationResponse admin = signUp();
+
+        assertBudget(authorized(get("/api/users/all/slice").param("email", emailOf(admin)).param("size", "5"),
+                admin), status().isOk(), 2, 3);
+    }
+
+    @Test
+    void testUserSeekBudget() throws Exception {
+        JwtAuthenticationResponse admin = signUp();
+
+        assertBudget(authorized(get("/api/users/all/seek").param("email", emailOf(admin)).param("size", "5"),
+                admin), status().isOk(), 2, 3);
+    }
+
+    @Test
+    void testUserNameSearchBudget() throws Exception {
+        JwtAuthenticationResponse admin = signUp();
+
+        assertBudget(authorized(get("/api/users/search").param("q", "Budget"), admin), status().isOk(), 1, 3);
+    }
+
+    @Test
+    void testImportBudget() throws Exception {
+        int n = USER_SEQUENCE.incrementAndGet();
+        String body = """
+                {"username":"budget_import%1$d","fullName":"Budget Import","dateOfBirth":"1990-01-01","email":"budget_import%1$d@example.com","password":"password123","phoneNumber":"+37529530%2$04d","initialSum":100.00}
+                """.formatted(n, n);
+
+        assertBudget(authorized(post("/api/users/import"), signUp())
+                .contentType(MediaType.APPLICATION_NDJSON).content(body), status().isOk(), 6, 3);
+    }
+
+    @Test
+    void testExportBudget() throws Exception {
+        JwtAuthenticationResponse admin = signUp();
+
+        assertBudget(authorized(get("/api/users/export").param("email", emailOf(admin)), admin),
+                status().isOk(), 2, 3);
+    }
+
+    @Test
+    void testTransferBudget() throws Exception {
+        JwtAuthenticationResponse sender = signUp();
+        Long recipientAccountId = userRepository.findByUsername(signUp().getUsername()).orElseThrow()
+                .getAccount().getId();
+
+        // token user, sender, recipient, debit, credit, balances read back, history batch, outbox batch,
+        // receipts batch
+        assertBudget(authorized(post("/api/users/transfer"), sender)
+                .param("recipientAccountId", recipientAccountId.toString())
+                .param("amount", "10.00"), status().isOk(), 10, 4);
+    }
+
+    @Test
+    void testTransfersBudget() throws Exception {
+        // token user and one keyset read of the statement, whatever the page
+        assertBudget(authorized(get("/api/users/me/transfers"), signUp()), status().isOk(), 2, 4);
+    }
+
+    @Test
+    void testBalanceBudget() throws Exception {
+        // token user only: the balance comes from the read model and the account id from the token
+        assertBudget(authorized(get("/api/users/me/balance"), signUp()), status().isOk(), 1, 4);
+    }
+
+    @Test
+    void testAccountBudget() throws Exception {
+        JwtAuthenticationResponse user = signUp();
+        // token user and the account by primary key, then the token user only while cached
+        assertBudget(authorized(get("/api/users/me/account"), user), status().isOk(), 2, 4);
+        assertBudget(authorized(get("/api/users/me/account"), user), status().isOk(), 1, 4);
+    }
+
+    @Test
+    void testBalanceEventsBudget() throws Exception {
+        // token user only: the first event is the balance from the read model
+        assertBudget(authorized(get("/api/users/me/events"), signUp()), request().asyncStarted(), 1, 4);
+    }
+
+    private void assertBudget(RequestBuilder request, ResultMatcher expectedStatus,
+                              int maxStatements, int maxTokenParses) throws Exception {
+        String header = mockMvc.perform(request)
+                .andExpect(expectedStatus)
+                .andReturn().getResponse().getHeader(RequestTraceFilter.TRACE_HEADER);
+        assertNotNull(header, "request trace header missing");
+        Map<String, String> trace = new HashMap<>();
+        for (String pair : header.split(" ")) {
+            String[] keyValue = pair.split("=", 2);
+            trace.put(keyValue[0], keyValue[1]);
+        }
+        int statements = Integer.parseInt(trace.get("sql"));
+        int tokenParses = Integer.parseInt(trace.get("jwtParses"));
+        assertTrue(statements <= maxStatements,
+                "SQL statements: " + statements + ", budget: " + maxStatements + " (" + header + ")");
+        assertTrue(tokenParses <= maxTokenParses,
+                "JWT parses: " + tokenParses + ", budget: " + maxTokenParses + " (" + header + ")");
+    }
+
+    private static MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request,
+                                                            JwtAuthenticationResponse user) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken());
+    }
+
+    private JwtAuthenticationResponse signUp() {
+        int n = USER_SEQUENCE.incrementAndGet();
+        return authenticationService.signUp(
+                signUpRequest("budget_user" + n, "Budget User " + n, "+37529500" + (1000 + n)));
+    }
+
+    private static String emailOf(JwtAuthenticationResponse user) {
+        return user.getUsername() + "@example.com";
+    }
+
+    private Long idOf(JwtAuthenticationResponse user) {
+        return userRepository.findByUsername(user.getUsername()).map(User::getId).orElseThrow();
+    }
+}
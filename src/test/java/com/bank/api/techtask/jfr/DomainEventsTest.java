@@ -0,0 +1,112 @@
+package com.bank.api.techtask.jfr;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.repository.UserRepository;
+import com.bank.api.techtask.service.AuthenticationService;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DomainEventsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testBankProfileRecordsTransferTokenAndPasswordEvents() throws Exception {
+        List<RecordedEvent> events;
+        Long senderAccountId;
+        Long recipientAccountId;
+        try (Recording recording = new Recording(Configuration.create(Path.of("jfr/bank.jfc")))) {
+            recording.start();
+            JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("jfr_sender", "+375296000001"));
+            authenticationService.signUp(signUpRequest("jfr_recipient", "+375296000002"));
+            senderAccountId = userRepository.findByUsername("jfr_sender").orElseThrow().getAccount().getId();
+            recipientAccountId = userRepository.findByUsername("jfr_recipient").orElseThrow().getAccount().getId();
+            transfer(sender, recipientAccountId, "25.00");
+            recording.stop();
+            events = dump(recording);
+        }
+
+        RecordedEvent transfer = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.bank.Transfer"))
+                .findFirst().orElseThrow();
+        assertEquals(senderAccountId, transfer.getLong("senderAccountId"));
+        assertEquals(recipientAccountId, transfer.getLong("recipientAccountId"));
+        assertEquals("10-100", transfer.getString("amountBucket"));
+        assertEquals("success", transfer.getString("outcome"));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("com.bank.TokenVerification")
+                && event.getBoolean("valid")));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("com.bank.PasswordHash")
+                && event.getString("operation").equals("encode")));
+    }
+
+    @Test
+    void testEventsAreDisabledWithoutBankProfile() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("jfr_quiet_sender", "+375296000003"));
+        authenticationService.signUp(signUpRequest("jfr_quiet_recipient", "+375296000004"));
+        Long recipientAccountId = userRepository.findByUsername("jfr_quiet_recipient").orElseThrow()
+                .getAccount().getId();
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+            recording.start();
+            transfer(sender, recipientAccountId, "5.00");
+            recording.stop();
+            events = dump(recording);
+        }
+
+        assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().startsWith("com.bank.")));
+    }
+
+    @Test
+    void testAmountBuckets() {
+        assertEquals("0-1", TransferEvent.bucketOf(new BigDecimal("0.50")));
+        assertEquals("1-10", TransferEvent.bucketOf(new BigDecimal("9.99")));
+        assertEquals("100-1000", TransferEvent.bucketOf(new BigDecimal("150.00")));
+        assertEquals("1000-10000", TransferEvent.bucketOf(new BigDecimal("1E+3")));
+        assertEquals("1000000+", TransferEvent.bucketOf(new BigDecimal("25000000")));
+    }
+
+    private void transfer(JwtAuthenticationResponse sender, Long recipientAccountId, String amount) throws Exception {
+        mockMvc.perform(post("/api/users/transfer")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                        .param("recipientAccountId", recipientAccountId.toString())
+                        .param("amount", amount))
+                .andExpect(status().isOk());
+    }
+
+    private static List<RecordedEvent> dump(Recording recording) throws Exception {
+        Path file = Files.createTempFile("bank-events", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
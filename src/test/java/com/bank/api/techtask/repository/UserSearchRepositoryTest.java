@@ -0,0 +1,223 @@
+package com.bank.api.techtask.repository;
+
+import com.bank.api.techtask.domain.dto.SignUpRequest;
+import com.bank.api.techtask.domain.dto.UserSortKey;
+import com.bank.api.techtask.domain.dto.UserSummary;
+import com.bank.api.techtask.domain.model.User;
+import com.bank.api.techtask.domain.response.CursorPage;
+import com.bank.api.techtask.domain.response.SliceResponse;
+import com.bank.api.techtask.service.AuthenticationService;
+import com.bank.api.techtask.service.UserService;
+import com.bank.api.techtask.service.UserSpecifications;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserSearchRepositoryTest {
+
+    private static final int USER_COUNT = 60;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSpecifications userSpecifications;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        if (!userRepository.existsByUsername("search_user0")) {
+            for (int i = 0; i < USER_COUNT; i++) {
+                SignUpRequest request = signUpRequest("search_user" + i, "Search User " + i, "+37529200" + (1000 + i));
+                request.setInitialSum(BigDecimal.valueOf(100 + i));
+                authenticationService.signUp(request);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 20, 50})
+    void testUserSummaryPageUsesOneQueryPlusCount(int pageSize) {
+        Sort sort = Sort.by(Sort.Direction.DESC, "account.balance");
+        statistics.clear();
+
+        Page<UserSummary> page = userService.getAllUsers(null, null, "Search User", null,
+                PageRequest.of(0, pageSize, sort), sort);
+
+        assertEquals(pageSize, page.getNumberOfElements());
+        assertEquals(USER_COUNT, page.getTotalElements());
+        assertEquals(BigDecimal.valueOf(100 + USER_COUNT - 1).setScale(2),
+                page.getContent().get(0).getBalance().setScale(2));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testLastUserSummaryPageSkipsCount() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "fullName");
+        statistics.clear();
+
+        Page<UserSummary> page = userService.getAllUsers(null, null, "Search User 1", null,
+                PageRequest.of(0, 100, sort), sort);
+
+        assertEquals(11, page.getNumberOfElements());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testUserSummariesWithEqualBalancesArePagedByAccountId() {
+        if (!userRepository.existsByUsername("balance_tie0")) {
+            for (int i = 0; i < 3; i++) {
+                SignUpRequest request = signUpRequest("balance_tie" + i, "Balance Tie " + i, "+37529400" + (1000 + i));
+                request.setInitialSum(new BigDecimal("500.00"));
+                authenticationService.signUp(request);
+            }
+        }
+        Sort sort = Sort.by(Sort.Direction.DESC, "account.balance");
+
+        List<Long> accountIds = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            Page<UserSummary> summaries = userService.getAllUsers(null, null, "Balance Tie", null,
+                    PageRequest.of(page, 1, sort), sort);
+            accountIds.add(summaries.getContent().get(0).getAccountId());
+        }
+
+        List<Long> expected = new ArrayList<>(accountIds);
+        expected.sort(Comparator.reverseOrder());
+        assertEquals(expected, accountIds);
+        assertEquals(3, new HashSet<>(accountIds).size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void testUserEntityPageLoadsRolesAndAccountInBoundedQueries(int pageSize) {
+        Sort sort = Sort.by(Sort.Direction.ASC, "fullName");
+        statistics.clear();
+
+        Page<User> page = userRepository.findAll(
+                userSpecifications.hasFullNameStartingWith("Search User"), PageRequest.of(0, pageSize, sort));
+        page.forEach(UserSearchRepositoryTest::touchAssociations);
+
+        assertEquals(pageSize, page.getNumberOfElements());
+        // users with accounts, roles batch, count
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void testUserSummarySliceUsesOneQuery(int pageSize) {
+        Sort sort = Sort.by(Sort.Direction.DESC, "account.balance");
+        statistics.clear();
+
+        SliceResponse<UserSummary> slice = userService.getAllUsersSlice(null, null, "Search User", null,
+                PageRequest.of(0, pageSize, sort), sort, false);
+
+        assertEquals(pageSize, slice.getContent().size());
+        assertTrue(slice.isHasNext());
+        assertEquals(BigDecimal.valueOf(100 + USER_COUNT - 1).setScale(2),
+                slice.getContent().get(0).getBalance().setScale(2));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 59, 59, true", "0, 60, 60, false", "0, 61, 60, false", "2, 20, 20, false",
+            "1, 20, 20, true", "5, 11, 5, false", "6, 10, 0, false"})
+    void testUserSummarySliceHasNextOnlyWhenRowsRemain(int page, int size, int expectedSize, boolean hasNext) {
+        Sort sort = Sort.by(Sort.Direction.ASC, "fullName");
+
+        SliceResponse<UserSummary> slice = userService.getAllUsersSlice(null, null, "Search User", null,
+                PageRequest.of(page, size, sort), sort, false);
+
+        assertEquals(expectedSize, slice.getContent().size());
+        assertEquals(hasNext, slice.isHasNext());
+        assertNull(slice.getApproximateTotal());
+    }
+
+    @Test
+    void testApproximateTotalIsOmittedWhenTheDatabaseCannotEstimate() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "fullName");
+
+        // H2 has no EXPLAIN (FORMAT JSON), so the estimate falls back to null instead of failing
+        SliceResponse<UserSummary> slice = userService.getAllUsersSlice(null, null, "Search User", null,
+                PageRequest.of(0, 5, sort), sort, true);
+
+        assertEquals(5, slice.getContent().size());
+        assertNull(slice.getApproximateTotal());
+    }
+
+    @Test
+    void testEstimateCountReadsThePlannerRowsAndFallsBackToNull() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        UserSearchRepositoryImpl repository = new UserSearchRepositoryImpl(jdbcTemplate);
+
+        when(jdbcTemplate.queryForObject(startsWith("EXPLAIN (FORMAT JSON) SELECT 1 FROM users u WHERE TRUE"),
+                eq(String.class), any(Object[].class)))
+                .thenReturn("[{\"Plan\": {\"Node Type\": \"Seq Scan\", \"Plan Rows\": 1234}}]")
+                .thenReturn("[{\"Plan\": {}}]")
+                .thenReturn(null)
+                .thenThrow(new BadSqlGrammarException("estimate", "EXPLAIN", new SQLException("syntax error")));
+
+        assertEquals(1234L, repository.estimateCount(null, null, "Search User", null));
+        assertNull(repository.estimateCount(null, null, "Search User", null));
+        assertNull(repository.estimateCount(null, null, "Search User", null));
+        assertNull(repository.estimateCount(null, null, "Search User", null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void testUserSummarySeekPageUsesOneQuery(int pageSize) {
+        statistics.clear();
+
+        CursorPage<UserSummary> page = userService.getAllUsersAfter(null, null, "Search User", null, pageSize,
+                UserSortKey.BALANCE, Sort.Direction.DESC, null);
+
+        assertEquals(pageSize, page.getSize());
+        assertEquals(BigDecimal.valueOf(100 + USER_COUNT - 1).setScale(2),
+                page.getContent().get(0).getBalance().setScale(2));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private static void touchAssociations(User user) {
+        assertFalse(user.getRole().isEmpty());
+        assertNotNull(user.getAccount().getBalance());
+    }
+}
@@ -0,0 +1,138 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.AccountSummary;
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
+import com.bank.api.techtask.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AccountSummaryCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testAccountIsCachedAndEvictedByTransfer() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("cached_sender", "+375291100001"));
+        JwtAuthenticationResponse recipient = authenticationService.signUp(
+                signUpRequest("cached_recipient", "+375291100002"));
+        Long senderAccountId = userRepository.findByUsername("cached_sender").orElseThrow().getAccount().getId();
+        Long recipientAccountId = userRepository.findByUsername("cached_recipient").orElseThrow()
+                .getAccount().getId();
+
+        JsonNode account = account(sender);
+        assertEquals(senderAccountId, account.get("id").asLong());
+        assertEquals(0, new BigDecimal("100.00").compareTo(account.get("balance").decimalValue()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(account.get("initialBalance").decimalValue()));
+        account(recipient);
+        double hitsBefore = hits();
+        account(sender);
+        assertEquals(1, hits() - hitsBefore);
+
+        mockMvc.perform(post("/api/users/transfer")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                        .param("recipientAccountId", recipientAccountId.toString())
+                        .param("amount", "30.00"))
+                .andExpect(status().isOk());
+
+        assertEquals(0, new BigDecimal("70.00").compareTo(account(sender).get("balance").decimalValue()));
+        assertEquals(0, new BigDecimal("130.00").compareTo(account(recipient).get("balance").decimalValue()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(account(recipient).get("initialBalance").decimalValue()));
+    }
+
+    @Test
+    void testAccountIsEvictedByAccrual() throws Exception {
+        JwtAuthenticationResponse user = authenticationService.signUp(signUpRequest("cached_accrual", "+375291100003"));
+        assertEquals(0, new BigDecimal("100.00").compareTo(account(user).get("balance").decimalValue()));
+
+        accountService.updateBalances();
+
+        assertEquals(0, new BigDecimal("105.00").compareTo(account(user).get("balance").decimalValue()));
+    }
+
+    @Test
+    void testCacheIsBoundedAndSkipsLoadsRacingTheirEviction() {
+        AccountSummaryCache cache = new AccountSummaryCache(Duration.ofMinutes(1), 2, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> load(1L, loads));
+        cache.get(2L, () -> load(2L, loads));
+        cache.get(1L, () -> load(1L, loads));
+        cache.get(3L, () -> load(3L, loads));
+        assertEquals(3, loads.get());
+        cache.get(1L, () -> load(1L, loads));
+        assertEquals(3, loads.get(), "the most recently used account was evicted");
+        cache.get(2L, () -> load(2L, loads));
+        assertEquals(4, loads.get(), "the least recently used account was kept");
+
+        BalanceChangedEvent event = new BalanceChangedEvent(List.of(new AccountBalance(4L, BigDecimal.ONE, 1)));
+        cache.get(4L, () -> {
+            cache.onBalanceChanged(event);
+            return load(4L, loads);
+        });
+        cache.get(4L, () -> load(4L, loads));
+        assertEquals(6, loads.get(), "a summary loaded during its eviction was cached");
+
+        cache.get(5L, () -> {
+            cache.onBalanceChanged(event);
+            return load(5L, loads);
+        });
+        cache.get(5L, () -> load(5L, loads));
+        assertEquals(7, loads.get(), "an eviction of another account discarded the load");
+    }
+
+    private double hits() {
+        return meterRegistry.get("accounts.cache").tag("result", "hit").counter().count();
+    }
+
+    private JsonNode account(JwtAuthenticationResponse user) throws Exception {
+        String body = mockMvc.perform(get("/api/users/me/account")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static AccountSummary load(Long accountId, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new AccountSummary(accountId, BigDecimal.TEN, BigDecimal.TEN);
+    }
+}
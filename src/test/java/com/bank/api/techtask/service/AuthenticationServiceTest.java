@@ -0,0 +1,247 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.config.InvalidTokenRepository;
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.domain.dto.SignInRequest;
+import com.bank.api.techtask.domain.dto.SignUpRequest;
+import com.bank.api.techtask.domain.model.Role;
+import com.bank.api.techtask.domain.model.RoleEnum;
+import com.bank.api.techtask.domain.model.User;
+import com.bank.api.techtask.exception.EmailInUseException;
+import com.bank.api.techtask.exception.PhoneNumberTakenException;
+import com.bank.api.techtask.exception.RoleNotFoundException;
+import com.bank.api.techtask.exception.UsernameTakenException;
+import com.bank.api.techtask.repository.AccountRepository;
+import com.bank.api.techtask.repository.RoleRepository;
+import com.bank.api.techtask.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.List;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthenticationServiceTest {
+
+    private static final String UNIQUENESS_QUERY = "SELECT u.id AS id, u.username AS username, u.email AS email, "
+            + "u.phoneNumber AS phoneNumber FROM User u WHERE u.username = :username OR u.email = :email "
+            + "OR u.phoneNumber = :phoneNumber";
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleCache roleCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private InvalidTokenRepository invalidTokenRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void testSignUpDoesNotReadUserBack() {
+        statistics.clear();
+
+        JwtAuthenticationResponse response = authenticationService.signUp(signUpRequest("signup_user", "+375291000001"));
+
+        assertNotNull(response.getToken());
+        assertEquals("signup_user", response.getUsername());
+        assertEquals(List.of(RoleEnum.ROLE_USER, RoleEnum.ROLE_ADMIN), response.getRoles());
+        // uniqueness check, users insert, account insert, user_roles batch
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(List.of(UNIQUENESS_QUERY), List.of(statistics.getQueries()));
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    void testSignInLoadsUserOnce() {
+        authenticationService.signUp(signUpRequest("signin_user", "+375291000002"));
+        SignInRequest request = new SignInRequest();
+        request.setUsername("signin_user");
+        request.setPassword("password123");
+        statistics.clear();
+
+        JwtAuthenticationResponse response = authenticationService.signIn(request);
+
+        assertNotNull(response.getToken());
+        assertEquals("signin_user", response.getUsername());
+        assertEquals(List.of(RoleEnum.ROLE_USER, RoleEnum.ROLE_ADMIN), response.getRoles());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSignInNoticeCanBeDisabled() {
+        authenticationService.signUp(signUpRequest("signin_notice", "+375291000008"));
+        AuthenticationService quiet = new AuthenticationService(jwtService, passwordEncoder, authenticationManager,
+                userRepository, roleCache, invalidTokenRepository, accountRepository, eventPublisher,
+                notificationService, false);
+
+        quiet.signIn(signInRequest("signin_notice"));
+        assertEquals(0, notices("signin_notice@example.com"));
+
+        authenticationService.signIn(signInRequest("signin_notice"));
+        assertEquals(1, notices("signin_notice@example.com"));
+    }
+
+    @Test
+    void testSignUpConflictsAreFoundWithOneQuery() {
+        authenticationService.signUp(signUpRequest("unique_taken", "+375291000003"));
+
+        assertConflictFoundWithOneQuery(UsernameTakenException.class,
+                signUpRequestWithEmail("unique_taken", "unique_other@example.com", "+375291000004"));
+        assertConflictFoundWithOneQuery(EmailInUseException.class,
+                signUpRequestWithEmail("unique_other", "unique_taken@example.com", "+375291000004"));
+        assertConflictFoundWithOneQuery(PhoneNumberTakenException.class,
+                signUpRequestWithEmail("unique_other", "unique_other@example.com", "+375291000003"));
+        // with several conflicts the username is reported first, then the email
+        assertConflictFoundWithOneQuery(UsernameTakenException.class,
+                signUpRequestWithEmail("unique_taken", "unique_taken@example.com", "+375291000003"));
+        assertFalse(userRepository.existsByUsername("unique_other"));
+    }
+
+    @Test
+    void testUpdateChecksUniquenessWithOneQuery() {
+        authenticationService.signUp(signUpRequest("update_taken", "+375291000005"));
+        authenticationService.signUp(signUpRequest("update_user", "+375291000006"));
+        User user = userRepository.findByUsername("update_user").orElseThrow();
+
+        // keeping its own username and email is not a conflict
+        statistics.clear();
+        authenticationService.updateUser(user.getId(), updatedUser("update_user", "update_user@example.com"));
+        assertEquals(List.of(UNIQUENESS_QUERY), List.of(statistics.getQueries()));
+        assertEquals(1, statistics.getQueryExecutionCount());
+
+        statistics.clear();
+        assertThrows(UsernameTakenException.class, () -> authenticationService.updateUser(user.getId(),
+                updatedUser("update_taken", "update_user@example.com")));
+        assertThrows(EmailInUseException.class, () -> authenticationService.updateUser(user.getId(),
+                updatedUser("update_user", "update_taken@example.com")));
+        assertEquals(2, statistics.getQueryExecutionCount());
+        assertEquals(2, statistics.getQueryStatistics(UNIQUENESS_QUERY).getExecutionCount());
+        assertEquals("update_user@example.com",
+                userRepository.findByUsername("update_user").orElseThrow().getEmail());
+    }
+
+    @Test
+    void testRolesAreServedFromTheCache() {
+        roleCache.load();
+        statistics.clear();
+
+        Role user = roleCache.get(RoleEnum.ROLE_USER);
+        Role admin = roleCache.get(RoleEnum.ROLE_ADMIN);
+
+        assertSame(user, roleCache.get(RoleEnum.ROLE_USER));
+        assertEquals(RoleEnum.ROLE_USER, user.getName());
+        assertEquals(RoleEnum.ROLE_ADMIN, admin.getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testMissingRoleIsReported() {
+        Role user = new Role();
+        user.setName(RoleEnum.ROLE_USER);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(user));
+        RoleCache cache = new RoleCache(roleRepository);
+
+        assertSame(user, cache.get(RoleEnum.ROLE_USER));
+        assertThrows(RoleNotFoundException.class, () -> cache.get(RoleEnum.ROLE_ADMIN));
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testSignUpLinksCachedRolesWithoutInsertingRoles() {
+        Long rolesBefore = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM roles", Long.class);
+
+        authenticationService.signUp(signUpRequest("role_link_user", "+375291000007"));
+
+        Long userId = userRepository.findByUsername("role_link_user").orElseThrow().getId();
+        List<Long> roleIds = jdbcTemplate.queryForList(
+                "SELECT role_id FROM user_roles WHERE user_id = ? ORDER BY role_id", Long.class, userId);
+        List<Long> expected = List.of(roleCache.get(RoleEnum.ROLE_USER).getId().longValue(),
+                roleCache.get(RoleEnum.ROLE_ADMIN).getId().longValue());
+        assertEquals(expected.stream().sorted().toList(), roleIds);
+        assertEquals(rolesBefore, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM roles", Long.class));
+    }
+
+    private void assertConflictFoundWithOneQuery(Class<? extends RuntimeException> expected, SignUpRequest request) {
+        statistics.clear();
+        assertThrows(expected, () -> authenticationService.signUp(request));
+        assertEquals(List.of(UNIQUENESS_QUERY), List.of(statistics.getQueries()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private long notices(String recipient) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification WHERE recipient = ?", Long.class,
+                recipient);
+    }
+
+    private static SignInRequest signInRequest(String username) {
+        SignInRequest request = new SignInRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        return request;
+    }
+
+    private static User updatedUser(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("password123");
+        return user;
+    }
+
+    private static SignUpRequest signUpRequestWithEmail(String username, String email, String phoneNumber) {
+        SignUpRequest request = signUpRequest(username, phoneNumber);
+        request.setEmail(email);
+        return request;
+    }
+}
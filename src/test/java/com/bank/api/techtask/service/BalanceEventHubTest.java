@@ -0,0 +1,231 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
+import com.bank.api.techtask.domain.response.BalanceResponse;
+import com.bank.api.techtask.exception.TooManyRequestsException;
+import com.bank.api.techtask.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BalanceEventHubTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void testTransfersAndAccrualAreStreamed() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("stream_sender", "+375297600001"));
+        authenticationService.signUp(signUpRequest("stream_recipient", "+375297600002"));
+        Long senderAccountId = userRepository.findByUsername("stream_sender").orElseThrow().getAccount().getId();
+        Long recipientAccountId = userRepository.findByUsername("stream_recipient").orElseThrow()
+                .getAccount().getId();
+
+        MvcResult stream = mockMvc.perform(get("/api/users/me/events")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertTrue(eventually(() -> content(stream).contains("\"balance\":100.00")), content(stream));
+        assertTrue(content(stream).contains("event:balance"));
+        assertTrue(content(stream).contains("\"accountId\":" + senderAccountId));
+
+        mockMvc.perform(post("/api/users/transfer")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                        .param("recipientAccountId", recipientAccountId.toString())
+                        .param("amount", "30.00"))
+                .andExpect(status().isOk());
+        assertTrue(eventually(() -> content(stream).contains("\"balance\":70.00")), content(stream));
+
+        accountService.updateBalances();
+        assertTrue(eventually(() -> content(stream).contains("\"balance\":73.50")), content(stream));
+        assertFalse(content(stream).contains("\"accountId\":" + recipientAccountId),
+                "another account's balance was streamed");
+    }
+
+    @Test
+    void testStreamRequiresAuthentication() throws Exception {
+        mockMvc.perform(get("/api/users/me/events")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testSlowConsumerIsDisconnectedWithoutAffectingOthers() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BlockingEmitter slow = new BlockingEmitter();
+        RecordingEmitter fast = new RecordingEmitter();
+        BalanceEventHub hub = hub(3, 2, 10, meterRegistry, slow, fast);
+        try {
+            // the current balance is the first event of each stream, and blocks the slow one
+            hub.subscribe(1L, () -> balance(1L, BigDecimal.ZERO));
+            hub.subscribe(1L, () -> balance(1L, BigDecimal.ZERO));
+            assertEquals(2, hub.getConnections());
+
+            for (int i = 1; i <= 4; i++) {
+                int events = i + 1;
+                hub.onBalanceChanged(new BalanceChangedEvent(List.of(
+                        new AccountBalance(1L, BigDecimal.valueOf(i), i))));
+                assertTrue(eventually(() -> slow.sending.getCount() == 0 && fast.sent.size() == events));
+                assertEquals(i == 4, slow.completed.get());
+            }
+
+            assertTrue(slow.completed.get(), "the slow stream was not disconnected");
+            assertEquals(1, hub.getConnections());
+            assertEquals(1, meterRegistry.get("bank.events.evicted").counter().count());
+            hub.onBalanceChanged(new BalanceChangedEvent(List.of(new AccountBalance(1L, BigDecimal.TEN, 1))));
+            assertTrue(eventually(() -> fast.sent.size() == 6), "the other stream stopped receiving events");
+            slow.release.countDown();
+        } finally {
+            hub.shutdown();
+        }
+    }
+
+    @Test
+    void testConnectionsAreLimited() {
+        BalanceEventHub hub = hub(2, 1, 1, new SimpleMeterRegistry(), new RecordingEmitter(), new RecordingEmitter());
+        try {
+            hub.subscribe(1L, () -> balance(1L, BigDecimal.ONE));
+            assertThrows(TooManyRequestsException.class, () -> hub.subscribe(2L, () -> balance(2L, BigDecimal.ONE)));
+            assertEquals(1, hub.getConnections());
+        } finally {
+            hub.shutdown();
+        }
+    }
+
+    @Test
+    void testFailedBalanceReadDoesNotLeakTheStream() {
+        RecordingEmitter failed = new RecordingEmitter();
+        RecordingEmitter next = new RecordingEmitter();
+        BalanceEventHub hub = hub(2, 1, 1, new SimpleMeterRegistry(), failed, next);
+        try {
+            assertThrows(IllegalStateException.class, () -> hub.subscribe(1L, () -> {
+                throw new IllegalStateException("balance unavailable");
+            }));
+            assertEquals(0, hub.getConnections());
+
+            // the slot is free again, and events only reach the stream that was opened
+            hub.subscribe(1L, () -> balance(1L, BigDecimal.ONE));
+            hub.onBalanceChanged(new BalanceChangedEvent(List.of(new AccountBalance(1L, BigDecimal.TEN, 1))));
+            assertTrue(eventually(() -> next.sent.size() == 2));
+            assertTrue(failed.sent.isEmpty(), "an event reached the stream that failed to open");
+        } finally {
+            hub.shutdown();
+        }
+    }
+
+    /**
+     * Creates a hub whose streams use the given emitters, in order of subscription.
+     */
+    private static BalanceEventHub hub(int bufferSize, int senderThreads, int maxConnections,
+                                       SimpleMeterRegistry meterRegistry, SseEmitter... emitters) {
+        Queue<SseEmitter> queue = new ArrayDeque<>(List.of(emitters));
+        return new BalanceEventHub(bufferSize, senderThreads, Duration.ofMinutes(1), maxConnections, meterRegistry) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                return queue.remove();
+            }
+        };
+    }
+
+    private static BalanceResponse balance(long accountId, BigDecimal balance) {
+        return new BalanceResponse(accountId, balance, Instant.now());
+    }
+
+    private static String content(MvcResult result) {
+        try {
+            return result.getResponse().getContentAsString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean eventually(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the events instead of writing them to a response.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<SseEventBuilder> sent = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder);
+        }
+    }
+
+    /**
+     * A client that stops reading: the first send blocks until released.
+     */
+    private static final class BlockingEmitter extends SseEmitter {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean completed = new AtomicBoolean();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.set(true);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
+import com.bank.api.techtask.domain.model.User;
+import com.bank.api.techtask.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BalanceReadModelTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private BalanceReadModel balanceReadModel;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testCommittedTransferIsServedFromMemory() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("balance_sender", "+375299000001"));
+        JwtAuthenticationResponse recipient = authenticationService.signUp(
+                signUpRequest("balance_recipient", "+375299000002"));
+        Long recipientAccountId = userRepository.findByUsername("balance_recipient").orElseThrow()
+                .getAccount().getId();
+        Instant beforeTransfer = Instant.now();
+
+        mockMvc.perform(post("/api/users/transfer")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                        .param("recipientAccountId", recipientAccountId.toString())
+                        .param("amount", "30.00"))
+                .andExpect(status().isOk());
+
+        JsonNode senderBalance = balance(sender.getToken());
+        assertEquals(0, new BigDecimal("70.00").compareTo(senderBalance.get("balance").decimalValue()));
+        assertFalse(Instant.parse(senderBalance.get("asOf").asText()).isBefore(beforeTransfer));
+        JsonNode recipientBalance = balance(recipient.getToken());
+        assertEquals(recipientAccountId, recipientBalance.get("accountId").asLong());
+        assertEquals(0, new BigDecimal("130.00").compareTo(recipientBalance.get("balance").decimalValue()));
+    }
+
+    @Test
+    void testRefreshPicksUpOnlyChangesMadeElsewhere() throws Exception {
+        JwtAuthenticationResponse user = authenticationService.signUp(signUpRequest("balance_reload", "+375299000003"));
+        Long accountId = userRepository.findByUsername("balance_reload").orElseThrow().getAccount().getId();
+        JwtAuthenticationResponse idle = authenticationService.signUp(signUpRequest("balance_idle", "+375299000006"));
+        Long idleAccountId = userRepository.findByUsername("balance_idle").orElseThrow().getAccount().getId();
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(user.getToken()).get("balance").decimalValue()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(idle.getToken()).get("balance").decimalValue()));
+        balanceReadModel.refresh();
+
+        // a change this instance has not seen, as if made by another instance
+        jdbcTemplate.update("UPDATE account SET balance = 250.00, version = version + 1, "
+                + "updated_at = CURRENT_TIMESTAMP WHERE id = ?", accountId);
+        // a row the refresh must not read: not changed since long before the last refresh
+        jdbcTemplate.update("UPDATE account SET balance = 999.00, version = version + 1, "
+                + "updated_at = ? WHERE id = ?", Timestamp.from(Instant.now().minusSeconds(3600)), idleAccountId);
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(user.getToken()).get("balance").decimalValue()));
+
+        assertTrue(balanceReadModel.refresh() > 0);
+        assertEquals(0, new BigDecimal("250.00").compareTo(balance(user.getToken()).get("balance").decimalValue()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(idle.getToken()).get("balance").decimalValue()));
+    }
+
+    @Test
+    void testOvertakenCommitDoesNotBringBackAnOlderBalance() throws Exception {
+        JwtAuthenticationResponse user = authenticationService.signUp(signUpRequest("balance_order", "+375299000005"));
+        long accountId = userRepository.findByUsername("balance_order").orElseThrow().getAccount().getId();
+
+        // the listeners of two commits run in the opposite order, the older one last
+        balanceReadModel.onBalanceChanged(new BalanceChangedEvent(List.of(
+                new AccountBalance(accountId, new BigDecimal("300.00"), 2))));
+        balanceReadModel.onBalanceChanged(new BalanceChangedEvent(List.of(
+                new AccountBalance(accountId, new BigDecimal("200.00"), 1))));
+
+        JsonNode balance = balance(user.getToken());
+        assertEquals(0, new BigDecimal("300.00").compareTo(balance.get("balance").decimalValue()));
+    }
+
+    @Test
+    void testTokenWithoutAccountClaimFallsBackToTheDatabase() throws Exception {
+        authenticationService.signUp(signUpRequest("balance_old_token", "+375299000004"));
+        User user = userRepository.findByUsername("balance_old_token").orElseThrow();
+        Long accountId = user.getAccount().getId();
+        user.setAccount(null);
+        String token = jwtService.generateToken(user);
+        assertNull(jwtService.extractAccountId(token));
+
+        JsonNode balance = balance(token);
+        assertEquals(accountId, balance.get("accountId").asLong());
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance.get("balance").decimalValue()));
+    }
+
+    @Test
+    void testBalanceTableKeepsNewerEntriesAndGrows() {
+        BalanceTable table = new BalanceTable(4);
+        long[] entry = new long[2];
+        table.get(1, entry);
+        assertEquals(BalanceTable.MISSING, entry[0]);
+
+        table.put(1, 10_000, 2, 200);
+        table.put(1, 5_000, 1, 300);
+        table.get(1, entry);
+        assertEquals(10_000, entry[0]);
+        assertEquals(200, entry[1]);
+
+        // the same version read again later is only known to be current for longer
+        table.put(1, 10_000, 2, 250);
+        table.get(1, entry);
+        assertEquals(250, entry[1]);
+        table.put(1, 10_000, 2, 220);
+        table.get(1, entry);
+        assertEquals(250, entry[1]);
+
+        long[] ids = new long[10_000];
+        long[] balances = new long[10_000];
+        long[] versions = new long[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 2;
+            balances[i] = i * 3L;
+            versions[i] = i;
+        }
+        table.putAll(ids, balances, versions, ids.length, 300);
+        assertEquals(10_001, table.size());
+        for (int i = 0; i < ids.length; i++) {
+            table.get(ids[i], entry);
+            assertEquals(balances[i], entry[0]);
+        }
+        table.get(1, entry);
+        assertEquals(10_000, entry[0]);
+        assertThrows(IllegalArgumentException.class, () -> table.put(0, 1, 1, 1));
+    }
+
+    private JsonNode balance(String token) throws Exception {
+        String body = mockMvc.perform(get("/api/users/me/balance")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
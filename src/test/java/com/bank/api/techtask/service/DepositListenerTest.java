@@ -0,0 +1,126 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.repository.AccountRepository;
+import com.bank.api.techtask.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "deposits.consumer.enabled=true",
+        "deposits.partitions=3",
+        "deposits.consumer.retry-interval=200ms"
+})
+@ActiveProfiles("test")
+@EmbeddedKafka(kraft = true, partitions = 3, topics = DepositListenerTest.TOPIC)
+class DepositListenerTest {
+
+    static final String TOPIC = "bank.deposits";
+
+    private static final String GROUP = "bank-deposits";
+    private static final long UNKNOWN_ACCOUNT_ID = 999_999_999L;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Test
+    void testDepositsAreCreditedOnceAndOffsetsCommitted() throws Exception {
+        authenticationService.signUp(signUpRequest("deposit_first", "+375298000001"));
+        authenticationService.signUp(signUpRequest("deposit_second", "+375298000002"));
+        Long first = userRepository.findByUsername("deposit_first").orElseThrow().getAccount().getId();
+        Long second = userRepository.findByUsername("deposit_second").orElseThrow().getAccount().getId();
+        double rejectedBefore = meterRegistry.get("bank.deposits").tag("outcome", "rejected").counter().count();
+
+        send(first, deposit("dep-1", first, "10.00"));
+        send(first, deposit("dep-2", first, "20.00"));
+        send(first, deposit("dep-3", first, "0.50"));
+        send(first, deposit("dep-1", first, "10.00"));
+        send(second, deposit("dep-4", second, "7.00"));
+        send(second, "not a deposit");
+        send(second, deposit("dep-5", second, "-3.00"));
+        send(UNKNOWN_ACCOUNT_ID, deposit("dep-6", UNKNOWN_ACCOUNT_ID, "1.00"));
+        kafkaTemplate.flush();
+
+        assertEventuallyCommitted(8);
+        assertBalance("130.50", first);
+        assertBalance("107.00", second);
+        assertEquals(3, meterRegistry.get("bank.deposits").tag("outcome", "rejected").counter().count()
+                - rejectedBefore);
+
+        // a replay of the whole stream, followed by one new deposit on the same partition
+        send(first, deposit("dep-1", first, "10.00"));
+        send(first, deposit("dep-2", first, "20.00"));
+        send(first, deposit("dep-3", first, "0.50"));
+        send(first, deposit("dep-7", first, "1.00"));
+        kafkaTemplate.flush();
+
+        assertEventuallyCommitted(12);
+        assertBalance("131.50", first);
+        // every well formed message id is claimed once, except the one to the unknown account
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processed_deposit WHERE message_id "
+                + "LIKE 'dep-%'", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM deposit_dead_letter WHERE message_id "
+                + "= 'dep-6'", Integer.class));
+    }
+
+    private void send(long accountId, String payload) throws Exception {
+        kafkaTemplate.send(TOPIC, String.valueOf(accountId), payload).get(10, TimeUnit.SECONDS);
+    }
+
+    private void assertBalance(String expected, Long accountId) {
+        BigDecimal balance = accountRepository.findById(accountId).orElseThrow().getBalance();
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), "balance " + balance);
+    }
+
+    private void assertEventuallyCommitted(long expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        long committed;
+        do {
+            committed = 0;
+            for (int partition = 0; partition < 3; partition++) {
+                OffsetAndMetadata offset = KafkaTestUtils.getCurrentOffset(embeddedKafka.getBrokersAsString(),
+                        GROUP, TOPIC, partition);
+                committed += offset == null ? 0 : offset.offset();
+            }
+            if (committed < expected) {
+                Thread.sleep(100);
+            }
+        } while (committed < expected && System.nanoTime() < deadline);
+        assertEquals(expected, committed);
+    }
+
+    private static String deposit(String messageId, long accountId, String amount) {
+        return "{\"messageId\":\"" + messageId + "\",\"accountId\":" + accountId + ",\"amount\":" + amount + "}";
+    }
+}
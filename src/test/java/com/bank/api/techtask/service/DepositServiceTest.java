@@ -0,0 +1,172 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.domain.event.DepositReceived;
+import com.bank.api.techtask.repository.AccountRepository;
+import com.bank.api.techtask.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DepositServiceTest {
+
+    private static final long UNKNOWN_ACCOUNT_ID = 888_888_888L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DepositService depositService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testConcurrentDepositsAndTransfersConserveMoney() throws Exception {
+        JwtAuthenticationResponse first = authenticationService.signUp(signUpRequest("race_first", "+375297800001"));
+        JwtAuthenticationResponse second = authenticationService.signUp(signUpRequest("race_second", "+375297800002"));
+        long firstId = userRepository.findByUsername("race_first").orElseThrow().getAccount().getId();
+        long secondId = userRepository.findByUsername("race_second").orElseThrow().getAccount().getId();
+        int rounds = 50;
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            tasks.add(executor.submit(transfers(start, first, secondId, rounds)));
+            tasks.add(executor.submit(transfers(start, second, firstId, rounds)));
+            tasks.add(executor.submit((Callable<Void>) () -> {
+                start.await();
+                for (int i = 0; i < rounds; i++) {
+                    depositService.credit(List.of(
+                            new DepositReceived("race-" + i + "-a", firstId, new BigDecimal("1.00")),
+                            new DepositReceived("race-" + i + "-b", secondId, new BigDecimal("1.00"))));
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal total = balance(firstId).add(balance(secondId));
+        assertEquals(0, new BigDecimal("200.00").add(BigDecimal.valueOf(2L * rounds)).compareTo(total),
+                "money was lost or created: total " + total);
+    }
+
+    @Test
+    void testDepositsToUnknownAccountsAreDeadLettered() {
+        authenticationService.signUp(signUpRequest("dead_letter_known", "+375297800003"));
+        long known = userRepository.findByUsername("dead_letter_known").orElseThrow().getAccount().getId();
+        List<DepositReceived> deposits = List.of(
+                new DepositReceived("dead-1", known, new BigDecimal("5.00")),
+                new DepositReceived("dead-2", UNKNOWN_ACCOUNT_ID, new BigDecimal("3.00")));
+
+        assertEquals(1, depositService.credit(deposits));
+        assertEquals(0, depositService.credit(deposits), "a replay was credited again");
+
+        assertEquals(0, new BigDecimal("105.00").compareTo(balance(known)));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processed_deposit "
+                + "WHERE message_id IN ('dead-1', 'dead-2')", Integer.class));
+        assertEquals(UNKNOWN_ACCOUNT_ID, jdbcTemplate.queryForObject("SELECT account_id FROM deposit_dead_letter "
+                + "WHERE message_id = 'dead-2'", Long.class));
+        assertEquals("unknown account", jdbcTemplate.queryForObject("SELECT reason FROM deposit_dead_letter "
+                + "WHERE message_id = 'dead-2'", String.class));
+    }
+
+    @Test
+    void testAmountsBeyondTheBalanceColumnAreInvalid() {
+        assertTrue(DepositService.isValid(new DepositReceived("max", 1L, new BigDecimal("99999999999999999.99"))));
+        assertTrue(DepositService.isValid(new DepositReceived("zeros", 1L, new BigDecimal("5.000"))));
+        assertFalse(DepositService.isValid(new DepositReceived("huge", 1L, new BigDecimal("1E+17"))));
+        assertFalse(DepositService.isValid(new DepositReceived("huge", 1L, new BigDecimal("100000000000000000.00"))));
+        assertFalse(DepositService.isValid(new DepositReceived("cents", 1L, new BigDecimal("0.001"))));
+    }
+
+    @Test
+    void testDepositsThatCannotBeCreditedDoNotBlockTheBatch() {
+        authenticationService.signUp(signUpRequest("overflow_rich", "+375297800004"));
+        authenticationService.signUp(signUpRequest("overflow_poor", "+375297800005"));
+        authenticationService.signUp(signUpRequest("overflow_checked", "+375297800006"));
+        long rich = userRepository.findByUsername("overflow_rich").orElseThrow().getAccount().getId();
+        long poor = userRepository.findByUsername("overflow_poor").orElseThrow().getAccount().getId();
+        long checked = userRepository.findByUsername("overflow_checked").orElseThrow().getAccount().getId();
+        jdbcTemplate.update("UPDATE account SET balance = 99999999999999990.00 WHERE id = ?", rich);
+
+        assertEquals(1, depositService.credit(List.of(
+                new DepositReceived("overflow-1", rich, new BigDecimal("5.00")),
+                new DepositReceived("overflow-2", rich, new BigDecimal("5.00")),
+                new DepositReceived("overflow-3", poor, new BigDecimal("5.00")))));
+        assertEquals(0, new BigDecimal("105.00").compareTo(balance(poor)));
+        assertEquals(0, new BigDecimal("99999999999999990.00").compareTo(balance(rich)));
+        assertEquals(List.of("balance overflow", "balance overflow"), jdbcTemplate.queryForList(
+                "SELECT reason FROM deposit_dead_letter WHERE message_id LIKE 'overflow-%' ORDER BY message_id",
+                String.class));
+
+        // a constraint the guards do not know about fails the batch; only the offending deposit is dropped
+        jdbcTemplate.execute("ALTER TABLE account ADD CONSTRAINT deposit_test_check CHECK (balance <> 107.00)");
+        try {
+            assertEquals(1, depositService.credit(List.of(
+                    new DepositReceived("checked-1", checked, new BigDecimal("7.00")),
+                    new DepositReceived("checked-2", poor, new BigDecimal("1.00")))));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE account DROP CONSTRAINT deposit_test_check");
+        }
+        assertEquals(0, new BigDecimal("106.00").compareTo(balance(poor)));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(checked)));
+        assertEquals("rejected by database", jdbcTemplate.queryForObject(
+                "SELECT reason FROM deposit_dead_letter WHERE message_id = 'checked-1'", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM processed_deposit WHERE message_id = 'checked-1'", Integer.class));
+    }
+
+    private Callable<Void> transfers(CountDownLatch start, JwtAuthenticationResponse sender, long recipientId,
+                                     int rounds) {
+        return () -> {
+            start.await();
+            for (int i = 0; i < rounds; i++) {
+                mockMvc.perform(post("/api/users/transfer")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                        .param("recipientAccountId", Long.toString(recipientId))
+                        .param("amount", "1.00"));
+            }
+            return null;
+        };
+    }
+
+    private BigDecimal balance(long accountId) {
+        return accountRepository.findSummaryById(accountId).orElseThrow().getBalance();
+    }
+}
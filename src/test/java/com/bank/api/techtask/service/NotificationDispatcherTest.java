@@ -0,0 +1,242 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "notifications.dispatch.enabled=true",
+        "spring.mail.port=3025",
+        "notifications.sweep-interval-ms=600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class NotificationDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testTransferReceiptsAreMailedAfterCommit() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("mail_sender", "+375296600001"));
+        authenticationService.signUp(signUpRequest("mail_recipient", "+375296600002"));
+        Long recipientAccountId = userRepository.findByUsername("mail_recipient").orElseThrow()
+                .getAccount().getId();
+
+        mockMvc.perform(post("/api/users/transfer")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                        .param("recipientAccountId", recipientAccountId.toString())
+                        .param("amount", "12.50"))
+                .andExpect(status().isOk());
+
+        MimeMessage receipt = awaitMessage("mail_sender@example.com");
+        assertEquals("Transfer receipt", receipt.getSubject());
+        assertTrue(receipt.getContent().toString().contains("You sent 12.50 to account " + recipientAccountId));
+        assertTrue(receipt.getContent().toString().contains("Your balance is now 87.50"));
+        MimeMessage received = awaitMessage("mail_recipient@example.com");
+        assertEquals("Money received", received.getSubject());
+        assertTrue(received.getContent().toString().contains("Your balance is now 112.50"));
+        assertTrue(eventually(() -> pending("mail_sender@example.com") == 0), "the sent row was not deleted");
+    }
+
+    @Test
+    void testFailedTransferIsNotMailed() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("mail_poor", "+375296600003"));
+        authenticationService.signUp(signUpRequest("mail_rich", "+375296600004"));
+        Long recipientAccountId = userRepository.findByUsername("mail_rich").orElseThrow().getAccount().getId();
+
+        mockMvc.perform(post("/api/users/transfer")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                        .param("recipientAccountId", recipientAccountId.toString())
+                        .param("amount", "1000.00"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, pending("mail_poor@example.com"));
+        assertEquals(0, pending("mail_rich@example.com"));
+    }
+
+    @Test
+    void testSecurityNoticesOnSignInAndEmailChange() throws Exception {
+        authenticationService.signUp(signUpRequest("mail_security", "+375296600005"));
+
+        String token = mockMvc.perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"mail_security\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        token = objectMapper.readTree(token).get("token").asText();
+        assertEquals("New sign-in to your account", awaitMessage("mail_security@example.com").getSubject());
+
+        mockMvc.perform(patch("/api/users/update/email")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"mail_security_new@example.com\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals("Your email address was changed", awaitMessage("mail_security_new@example.com").getSubject());
+        assertTrue(eventually(() -> greenMail.getReceivedMessagesForDomain("mail_security@example.com").length == 2),
+                "the previous address was not told about the change");
+    }
+
+    @Test
+    void testFailedSendsAreRetriedWithBackoffThenGivenUp() throws Exception {
+        FlakyMailSender mailSender = new FlakyMailSender(1);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(jdbcTemplate, mailSender,
+                new SimpleMeterRegistry(), "no-reply@bank.local", 10000, 1, 10, 3, Duration.ZERO, Duration.ZERO,
+                Duration.ofMinutes(5));
+        try {
+            long retried = insertNotification("retry_once@example.com");
+            long givenUp = insertNotification("give_up@example.com");
+
+            dispatcher.sweep();
+            assertTrue(eventually(() -> attempts(givenUp) == 1 && attempts(retried) == 1));
+
+            dispatcher.sweep();
+            assertTrue(eventually(() -> pending("retry_once@example.com") == 0 && attempts(givenUp) == 2));
+            assertTrue(mailSender.sent.contains("retry_once@example.com"));
+
+            dispatcher.sweep();
+            assertTrue(eventually(() -> attempts(givenUp) == 3));
+            assertNotNull(jdbcTemplate.queryForObject("SELECT failed_at FROM notification WHERE id = ?",
+                    Timestamp.class, givenUp));
+            assertEquals("give up", jdbcTemplate.queryForObject("SELECT last_error FROM notification WHERE id = ?",
+                    String.class, givenUp));
+
+            int sendsBefore = mailSender.sends.get();
+            dispatcher.sweep();
+            Thread.sleep(200);
+            assertEquals(3, attempts(givenUp), "a failed notification was sent again");
+            assertFalse(mailSender.sent.contains("give_up@example.com"));
+            assertTrue(mailSender.sends.get() >= sendsBefore);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    private long insertNotification(String recipient) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("INSERT INTO notification (recipient, subject, body, attempts, next_attempt_at, "
+                + "created_at) VALUES (?, 'Subject', 'Body', 0, ?, ?)", recipient, now, now);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM notification WHERE recipient = ?", Long.class,
+                recipient);
+    }
+
+    private int attempts(long id) {
+        return jdbcTemplate.queryForObject("SELECT attempts FROM notification WHERE id = ?", Integer.class, id);
+    }
+
+    private int pending(String recipient) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification WHERE recipient = ?", Integer.class,
+                recipient);
+    }
+
+    private static MimeMessage awaitMessage(String recipient) {
+        assertTrue(eventually(() -> greenMail.getReceivedMessagesForDomain(recipient).length > 0),
+                "no email to " + recipient);
+        return greenMail.getReceivedMessagesForDomain(recipient)[0];
+    }
+
+    private static boolean eventually(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Accepts every message except those to {@code give_up@...}, which always fail, and those to
+     * {@code retry_once@...}, which fail the given number of times.
+     */
+    private static final class FlakyMailSender extends JavaMailSenderImpl {
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final AtomicInteger sends = new AtomicInteger();
+        private final AtomicInteger retryFailures;
+
+        private FlakyMailSender(int retryFailures) {
+            this.retryFailures = new AtomicInteger(retryFailures);
+        }
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            sends.incrementAndGet();
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (MimeMessage message : mimeMessages) {
+                String recipient = recipientOf(message);
+                if (recipient.startsWith("give_up@")
+                        || recipient.startsWith("retry_once@") && retryFailures.getAndDecrement() > 0) {
+                    failed.put(message, new MessagingException("give up"));
+                } else {
+                    sent.add(recipient);
+                }
+            }
+            if (!failed.isEmpty()) {
+                throw new MailSendException(failed);
+            }
+        }
+
+        private static String recipientOf(MimeMessage message) {
+            try {
+                Address[] recipients = message.getAllRecipients();
+                return recipients[0].toString();
+            } catch (MessagingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.domain.event.InterestAccrued;
+import com.bank.api.techtask.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "outbox.relay.enabled=true",
+        "outbox.relay.poll-interval-ms=50"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EmbeddedKafka(kraft = true, partitions = 3, topics = OutboxRelayTest.TOPIC)
+class OutboxRelayTest {
+
+    static final String TOPIC = "bank.account-events";
+
+    private static final int BULK_EVENTS = 5000;
+    private static final long SYNTHETIC_ACCOUNT_BASE = 1_000_000_000L;
+    private static final int SYNTHETIC_ACCOUNTS = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Test
+    void testTransferIsPublishedFromOutbox() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("outbox_sender", "+375297000001"));
+        authenticationService.signUp(signUpRequest("outbox_recipient", "+375297000002"));
+        Long senderAccountId = userRepository.findByUsername("outbox_sender").orElseThrow().getAccount().getId();
+        Long recipientAccountId = userRepository.findByUsername("outbox_recipient").orElseThrow()
+                .getAccount().getId();
+
+        try (Consumer<String, String> consumer = consumer("transfer-test")) {
+            mockMvc.perform(post("/api/users/transfer")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                            .param("recipientAccountId", recipientAccountId.toString())
+                            .param("amount", "30.00"))
+                    .andExpect(status().isOk());
+
+            // one message per affected account, keyed by that account
+            List<ConsumerRecord<String, String>> records = consume(consumer, 2, Duration.ofSeconds(20),
+                    record -> header(record, "event-type").equals(OutboxService.TRANSFER_COMPLETED)
+                            && (record.key().equals(senderAccountId.toString())
+                            || record.key().equals(recipientAccountId.toString())));
+
+            assertEquals(Set.of(senderAccountId.toString(), recipientAccountId.toString()),
+                    records.stream().map(ConsumerRecord::key).collect(Collectors.toSet()));
+            for (ConsumerRecord<String, String> record : records) {
+                JsonNode payload = objectMapper.readTree(record.value());
+                assertEquals(senderAccountId, payload.get("senderAccountId").asLong());
+                assertEquals(recipientAccountId, payload.get("recipientAccountId").asLong());
+                assertEquals(0, new BigDecimal("30.00").compareTo(payload.get("amount").decimalValue()));
+            }
+        }
+        assertEventuallyDrained();
+    }
+
+    @Test
+    void testBulkOutboxIsPublishedInOrderWithBoundedLag() {
+        Timer lag = meterRegistry.get("bank.outbox.lag").timer();
+        long lagCountBefore = lag.count();
+        List<InterestAccrued> accruals = new ArrayList<>(BULK_EVENTS);
+        Instant now = Instant.now();
+        for (int i = 0; i < BULK_EVENTS; i++) {
+            accruals.add(new InterestAccrued(SYNTHETIC_ACCOUNT_BASE + i % SYNTHETIC_ACCOUNTS,
+                    BigDecimal.valueOf(i), BigDecimal.valueOf(i + 1), now));
+        }
+
+        try (Consumer<String, String> consumer = consumer("bulk-test")) {
+            long start = System.nanoTime();
+            new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> outboxService.recordAccruals(accruals));
+
+            List<ConsumerRecord<String, String>> records = consume(consumer, BULK_EVENTS, Duration.ofSeconds(60),
+                    record -> Long.parseLong(record.key()) >= SYNTHETIC_ACCOUNT_BASE);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals(BULK_EVENTS, records.size());
+            Map<String, Long> lastOutboxIdByAccount = new HashMap<>();
+            for (ConsumerRecord<String, String> record : records) {
+                long outboxId = Long.parseLong(header(record, "outbox-id"));
+                Long previous = lastOutboxIdByAccount.put(record.key(), outboxId);
+                assertTrue(previous == null || previous < outboxId, "messages of an account out of order");
+            }
+            // 5000 messages in well under the timeout means hundreds per second even on a slow machine
+            assertTrue(elapsedMillis < 30_000, "published " + BULK_EVENTS + " messages in " + elapsedMillis + " ms");
+        }
+        assertTrue(lag.count() - lagCountBefore >= BULK_EVENTS);
+        assertTrue(lag.max(TimeUnit.SECONDS) < 30);
+        assertEventuallyDrained();
+    }
+
+    private Consumer<String, String> consumer(String group) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps(group, "false", embeddedKafka);
+        Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new StringDeserializer()).createConsumer();
+        embeddedKafka.consumeFromAnEmbeddedTopic(consumer, TOPIC);
+        return consumer;
+    }
+
+    private static List<ConsumerRecord<String, String>> consume(Consumer<String, String> consumer, int expected,
+                                                                Duration timeout,
+                                                                Predicate<ConsumerRecord<String, String>> filter) {
+        List<ConsumerRecord<String, String>> matching = new ArrayList<>();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (matching.size() < expected && System.nanoTime() < deadline) {
+            for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(200))) {
+                if (filter.test(record)) {
+                    matching.add(record);
+                }
+            }
+        }
+        return matching;
+    }
+
+    private static String header(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? "" : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private void assertEventuallyDrained() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        Integer pending;
+        do {
+            pending = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event", Integer.class);
+        } while (pending != null && pending > 0 && System.nanoTime() < deadline);
+        assertEquals(0, pending);
+    }
+}
@@ -0,0 +1,167 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TransferHistoryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testStatementIsPagedNewestFirst() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("history_sender", "+375297700001"));
+        JwtAuthenticationResponse recipient = authenticationService.signUp(
+                signUpRequest("history_recipient", "+375297700002"));
+        Long senderAccountId = accountIdOf("history_sender");
+        Long recipientAccountId = accountIdOf("history_recipient");
+
+        for (int amount = 1; amount <= 5; amount++) {
+            transfer(sender, recipientAccountId, amount + ".00");
+        }
+        transfer(recipient, senderAccountId, "20.00");
+
+        List<JsonNode> lines = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/users/me/transfers").param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = transfers(sender, request);
+            assertTrue(page.get("size").asInt() <= 2);
+            page.get("content").forEach(lines::add);
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertEquals(6, lines.size());
+        assertEquals(3, pages);
+        assertEquals(0, new BigDecimal("20.00").compareTo(lines.get(0).get("amount").decimalValue()));
+        assertEquals(0, new BigDecimal("105.00").compareTo(lines.get(0).get("balanceAfter").decimalValue()));
+        for (int i = 1; i <= 5; i++) {
+            JsonNode line = lines.get(i);
+            assertEquals(recipientAccountId, line.get("counterpartyAccountId").asLong());
+            assertEquals(0, new BigDecimal(-(6 - i)).compareTo(line.get("amount").decimalValue()));
+        }
+        assertEquals(0, new BigDecimal("99.00").compareTo(lines.get(5).get("balanceAfter").decimalValue()));
+
+        JsonNode recipientPage = transfers(recipient, get("/api/users/me/transfers"));
+        assertEquals(6, recipientPage.get("size").asInt());
+        assertFalse(recipientPage.get("hasNext").asBoolean());
+        assertEquals(0, new BigDecimal("-20.00").compareTo(
+                recipientPage.get("content").get(0).get("amount").decimalValue()));
+        assertEquals(0, new BigDecimal("5.00").compareTo(
+                recipientPage.get("content").get(1).get("amount").decimalValue()));
+    }
+
+    @Test
+    void testStatementIsFilteredByPeriod() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("history_period", "+375297700003"));
+        authenticationService.signUp(signUpRequest("history_period_to", "+375297700004"));
+        transfer(sender, accountIdOf("history_period_to"), "1.00");
+        LocalDate today = LocalDate.now();
+
+        assertEquals(1, transfers(sender, get("/api/users/me/transfers")
+                .param("from", today.toString()).param("to", today.toString())).get("size").asInt());
+        assertEquals(0, transfers(sender, get("/api/users/me/transfers")
+                .param("to", today.minusDays(1).toString())).get("size").asInt());
+        assertEquals(0, transfers(sender, get("/api/users/me/transfers")
+                .param("from", today.plusDays(1).toString())).get("size").asInt());
+    }
+
+    @Test
+    void testFirstPageIsBoundedByTheCurrentTime() throws Exception {
+        JwtAuthenticationResponse user = authenticationService.signUp(signUpRequest("history_bound", "+375297700006"));
+        authenticationService.signUp(signUpRequest("history_bound_to", "+375297700007"));
+        Long accountId = accountIdOf("history_bound");
+        transfer(user, accountIdOf("history_bound_to"), "1.00");
+        // a line stamped far beyond any clock skew, as if by an instance whose clock ran a year ahead
+        LocalDate nextYear = LocalDate.now().plusYears(1);
+        jdbcTemplate.update("INSERT INTO transfer_history (account_id, counterparty_account_id, amount, "
+                + "balance_after, created_at) VALUES (?, ?, ?, ?, ?)", accountId, accountId, BigDecimal.ONE,
+                BigDecimal.TEN, Timestamp.valueOf(nextYear.atStartOfDay()));
+
+        assertEquals(1, transfers(user, get("/api/users/me/transfers")).get("size").asInt());
+        assertEquals(1, transfers(user, get("/api/users/me/transfers")
+                .param("from", nextYear.toString()).param("to", nextYear.toString())).get("size").asInt());
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() throws Exception {
+        JwtAuthenticationResponse user = authenticationService.signUp(signUpRequest("history_invalid", "+375297700005"));
+
+        mockMvc.perform(get("/api/users/me/transfers").param("cursor", "not-a-cursor")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/me/transfers").param("size", "0")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/me/transfers").param("from", "2024-02-01").param("to", "2024-01-01")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPartitionNames() {
+        assertEquals("transfer_history_y2024m05", TransferHistoryPartitions.partitionName(YearMonth.of(2024, 5)));
+        assertEquals("transfer_history_y2025m12", TransferHistoryPartitions.partitionName(YearMonth.of(2025, 12)));
+    }
+
+    private Long accountIdOf(String username) {
+        return userRepository.findByUsername(username).orElseThrow().getAccount().getId();
+    }
+
+    private void transfer(JwtAuthenticationResponse sender, Long recipientAccountId, String amount) throws Exception {
+        mockMvc.perform(post("/api/users/transfer")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                        .param("recipientAccountId", recipientAccountId.toString())
+                        .param("amount", amount))
+                .andExpect(status().isOk());
+    }
+
+    private JsonNode transfers(JwtAuthenticationResponse user, MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,103 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.repository.UserRepository;
+import com.bank.api.techtask.service.UserExportService.ExportFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserExportServiceTest {
+
+    private static final int USERS = 25;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        if (!userRepository.existsByUsername("export_user0")) {
+            for (int i = 0; i < USERS; i++) {
+                signUp("export_user" + i, "Exportova Anna " + i, "+37529300" + String.format("%04d", i));
+            }
+            signUp("export_quoted", "Exportova, \"Quoted\"", "+375293009999");
+        }
+    }
+
+    @Test
+    void testNdjsonExportWritesOneObjectPerLine() throws Exception {
+        List<String> lines = export(ExportFormat.NDJSON);
+
+        assertEquals(USERS + 1, lines.size());
+        List<String> usernames = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode user = objectMapper.readTree(line);
+            usernames.add(user.get("username").asText());
+            assertEquals("1970-01-01", user.get("dateOfBirth").asText());
+            assertEquals(0, new BigDecimal("100.00").compareTo(user.get("balance").decimalValue()));
+            assertTrue(user.get("accountId").isNumber());
+        }
+        assertTrue(usernames.contains("export_user0"));
+        assertTrue(usernames.contains("export_quoted"));
+    }
+
+    @Test
+    void testCsvExportWritesHeaderAndQuotesValues() throws Exception {
+        List<String> lines = export(ExportFormat.CSV);
+
+        assertEquals("id,username,fullName,dateOfBirth,email,phoneNumber,accountId,balance", lines.get(0));
+        assertEquals(USERS + 2, lines.size());
+        assertTrue(lines.stream().anyMatch(line ->
+                line.contains(",export_quoted,\"Exportova, \"\"Quoted\"\"\",1970-01-01,export_quoted@example.com,")));
+    }
+
+    @Test
+    void testExportAppliesFilters() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        userExportService.exportUsers(null, "+375293000003", "Exportova", null, ExportFormat.NDJSON, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        assertEquals("export_user3", objectMapper.readTree(lines[0]).get("username").asText());
+    }
+
+    @Test
+    void testUnsupportedFormatIsRejected() {
+        assertEquals(ExportFormat.CSV, ExportFormat.fromParameter("CSV"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.fromParameter("xml"));
+    }
+
+    private List<String> export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        userExportService.exportUsers(null, null, "Exportova", null, format, output);
+        String body = output.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+        return List.of(body.split("\n"));
+    }
+
+    private void signUp(String username, String fullName, String phoneNumber) {
+        authenticationService.signUp(signUpRequest(username, fullName, phoneNumber));
+    }
+}
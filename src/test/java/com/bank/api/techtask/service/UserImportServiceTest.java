@@ -0,0 +1,247 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.SignUpRequest;
+import com.bank.api.techtask.domain.model.User;
+import com.bank.api.techtask.domain.response.UserImportReport;
+import com.bank.api.techtask.domain.response.UserImportReport.RowError;
+import com.bank.api.techtask.repository.UserRepository;
+import com.bank.api.techtask.service.UserImportService.ImportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserImportServiceTest {
+
+    private static final String CSV_HEADER = "Username,FULL_NAME,Date_Of_Birth,EMAIL,password,PhoneNumber,initial_sum";
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RoleCache roleCache;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void testCsvImportCreatesUsersWithRolesAndAccounts() throws IOException {
+        UserImportReport report = importCsv(
+                csvRow("import_valid1", "1990-01-31", "+375294500001"),
+                csvRow("import_valid2", "2000-02-29", "+375294500002"));
+
+        assertEquals(2, report.getTotalRows());
+        assertEquals(2, report.getImportedRows());
+        assertEquals(0, report.getRejectedRows());
+        User user = userRepository.findByUsername("import_valid2").orElseThrow();
+        assertEquals(LocalDate.of(2000, 2, 29),
+                new Date(user.getDateOfBirth().getTime()).toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+        assertEquals(0, new BigDecimal("100.00").compareTo(user.getAccount().getBalance()));
+        assertEquals(2, user.getRole().size());
+        assertTrue(passwordEncoder.matches("password123", user.getPassword()));
+    }
+
+    @Test
+    void testDuplicatesInInputRejectOnlyTheLaterRow() throws IOException {
+        UserImportReport report = importCsv(
+                csvRow("import_dup1", "import_dup1@example.com", "1990-01-01", "+375294500011"),
+                csvRow("import_dup1", "import_dup1b@example.com", "1990-01-01", "+375294500012"),
+                // reuses the email of the first row; its username and phone number stay free
+                csvRow("import_dup2", "import_dup1@example.com", "1990-01-01", "+375294500013"),
+                csvRow("import_dup2", "import_dup2@example.com", "1990-01-01", "+375294500013"),
+                csvRow("import_dup3", "import_dup3@example.com", "1990-01-01", "+375294500011"));
+
+        assertEquals(2, report.getImportedRows());
+        assertEquals(Map.of(
+                3L, "Duplicate username in input",
+                4L, "Duplicate email in input",
+                6L, "Duplicate phone number in input"), errors(report));
+        assertTrue(userRepository.existsByUsername("import_dup1"));
+        assertEquals("import_dup2@example.com",
+                userRepository.findByUsername("import_dup2").orElseThrow().getEmail());
+        assertFalse(userRepository.existsByUsername("import_dup3"));
+    }
+
+    @Test
+    void testUsersAlreadyInTheDatabaseAreRejected() throws IOException {
+        authenticationService.signUp(signUpRequest("import_taken", "Import Taken", "+375294500021"));
+
+        UserImportReport report = importCsv(
+                csvRow("import_taken", "import_new1@example.com", "1990-01-01", "+375294500022"),
+                csvRow("import_new2", "import_taken@example.com", "1990-01-01", "+375294500023"),
+                csvRow("import_new3", "import_new3@example.com", "1990-01-01", "+375294500021"),
+                csvRow("import_new4", "import_new4@example.com", "1990-01-01", "+375294500024"));
+
+        assertEquals(1, report.getImportedRows());
+        assertEquals(Map.of(
+                2L, "Username is already taken",
+                3L, "Email is already in use",
+                4L, "Phone number already in use"), errors(report));
+        assertTrue(userRepository.existsByUsername("import_new4"));
+    }
+
+    @Test
+    void testImpossibleDatesAreRejected() throws IOException {
+        UserImportReport report = importCsv(
+                csvRow("import_date1", "2024-13-45", "+375294500031"),
+                csvRow("import_date2", "2023-02-29", "+375294500032"),
+                csvRow("import_date3", "01.02.1990", "+375294500033"),
+                csvRow("import_date4", "2023-02-28", "+375294500034"));
+
+        assertEquals(1, report.getImportedRows());
+        assertEquals(Map.of(
+                2L, "Malformed row: dateOfBirth must be in yyyy-MM-dd format",
+                3L, "Malformed row: dateOfBirth must be in yyyy-MM-dd format",
+                4L, "Malformed row: dateOfBirth must be in yyyy-MM-dd format"), errors(report));
+
+        String ndjson = """
+                {"username":"import_date5","fullName":"Import User","dateOfBirth":"2024-13-45","email":"import_date5@example.com","password":"password123","phoneNumber":"+375294500035","initialSum":100.00}
+                """;
+        report = userImportService.importUsers(input(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(0, report.getImportedRows());
+        assertEquals(1, report.getRejectedRows());
+        assertFalse(userRepository.existsByUsername("import_date5"));
+    }
+
+    @Test
+    void testPasswordHashingFailureRejectsOnlyThatRow() throws IOException {
+        PasswordEncoder failing = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if (rawPassword.toString().equals("unhashable")) {
+                    throw new IllegalArgumentException("cannot hash");
+                }
+                return passwordEncoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return passwordEncoder.matches(rawPassword, encodedPassword);
+            }
+        };
+        UserImportService service = new UserImportService(failing, jdbcTemplate, transactionManager, roleCache,
+                validator, objectMapper, eventPublisher, 500, 2);
+        try {
+            String csv = String.join("\n", CSV_HEADER,
+                    csvRow("import_hash1", "1990-01-01", "+375294500041"),
+                    csvRow("import_hash2", "1990-01-01", "+375294500042").replace("password123", "unhashable"),
+                    csvRow("import_hash3", "1990-01-01", "+375294500043"));
+
+            UserImportReport report = service.importUsers(input(csv), ImportFormat.CSV);
+
+            assertEquals(2, report.getImportedRows());
+            assertEquals(Map.of(3L, "Password hashing failed"), errors(report));
+            assertTrue(userRepository.existsByUsername("import_hash3"));
+            assertFalse(userRepository.existsByUsername("import_hash2"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testSignUpRacingTheImportRejectsOnlyTheConflictingRow() throws IOException {
+        // the sign-up lands after the duplicate check, while the passwords of the chunk are being hashed
+        PasswordEncoder racing = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if (rawPassword.toString().equals("racing123")) {
+                    SignUpRequest request = signUpRequest("import_race3", "Import Race", "+375294500050");
+                    request.setEmail("import_race_signup@example.com");
+                    authenticationService.signUp(request);
+                }
+                return passwordEncoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return passwordEncoder.matches(rawPassword, encodedPassword);
+            }
+        };
+        UserImportService service = new UserImportService(racing, jdbcTemplate, transactionManager, roleCache,
+                validator, objectMapper, eventPublisher, 500, 1);
+        try {
+            String csv = String.join("\n", CSV_HEADER,
+                    csvRow("import_race1", "1990-01-01", "+375294500051").replace("password123", "racing123"),
+                    csvRow("import_race2", "1990-01-01", "+375294500052"),
+                    csvRow("import_race3", "1990-01-01", "+375294500053"),
+                    csvRow("import_race4", "1990-01-01", "+375294500054"),
+                    csvRow("import_race5", "1990-01-01", "+375294500055"));
+
+            UserImportReport report = service.importUsers(input(csv), ImportFormat.CSV);
+
+            assertEquals(4, report.getImportedRows());
+            assertEquals(Map.of(4L, "Username is already taken"), errors(report));
+            assertEquals("import_race_signup@example.com",
+                    userRepository.findByUsername("import_race3").orElseThrow().getEmail());
+            assertTrue(userRepository.existsByUsername("import_race1"));
+            assertTrue(userRepository.existsByUsername("import_race5"));
+            assertFalse(userRepository.existsByEmail("import_race3@example.com"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private UserImportReport importCsv(String... rows) throws IOException {
+        String csv = CSV_HEADER + "\n" + String.join("\n", rows);
+        return userImportService.importUsers(input(csv), ImportFormat.CSV);
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String csvRow(String username, String dateOfBirth, String phoneNumber) {
+        return csvRow(username, username + "@example.com", dateOfBirth, phoneNumber);
+    }
+
+    private static String csvRow(String username, String email, String dateOfBirth, String phoneNumber) {
+        return String.join(",", username, "Import User", dateOfBirth, email, "password123", phoneNumber, "100.00");
+    }
+
+    private static Map<Long, String> errors(UserImportReport report) {
+        List<RowError> errors = report.getErrors();
+        return errors.stream().collect(Collectors.toMap(RowError::getLine, RowError::getMessage));
+    }
+}
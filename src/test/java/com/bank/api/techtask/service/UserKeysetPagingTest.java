@@ -0,0 +1,190 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.domain.dto.SignUpRequest;
+import com.bank.api.techtask.domain.dto.UserCursor;
+import com.bank.api.techtask.domain.dto.UserSortKey;
+import com.bank.api.techtask.domain.dto.UserSummary;
+import com.bank.api.techtask.domain.response.CursorPage;
+import com.bank.api.techtask.exception.InvalidCursorException;
+import com.bank.api.techtask.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserKeysetPagingTest {
+
+    private static final String NAME_PREFIX = "Keyset Pager";
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        if (userRepository.existsByUsername("keyset_0")) {
+            return;
+        }
+        // duplicate names, dates and balances, and two users without an email
+        signUp(0, "A", 10, "100.00");
+        signUp(1, "A", 10, "100.00");
+        signUp(2, "B", 20, "50.00");
+        signUp(3, "C", 10, "100.00");
+        signUp(4, "C", 30, "75.00");
+        signUp(5, "D", 20, "50.00");
+        signUp(6, "E", 30, "75.00");
+        jdbcTemplate.update("UPDATE users SET email = NULL WHERE username IN ('keyset_1', 'keyset_4')");
+    }
+
+    @Test
+    void testEveryPageSizeWalksTheWholeListingInOrder() {
+        List<UserSummary> users = userService.getAllUsers(null, null, NAME_PREFIX, null,
+                PageRequest.of(0, 100), Sort.unsorted()).getContent();
+        assertEquals(7, users.size());
+
+        for (UserSortKey sortKey : UserSortKey.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                List<Long> expected = users.stream()
+                        .sorted(order(sortKey, direction))
+                        .map(UserSummary::getId)
+                        .toList();
+                for (int size = 1; size <= 3; size++) {
+                    assertEquals(expected, walk(sortKey, direction, size),
+                            sortKey + " " + direction + " with pages of " + size);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCursorRoundTrip() {
+        List<UserCursor> cursors = List.of(
+                new UserCursor(UserSortKey.FULL_NAME, Sort.Direction.ASC, "Keyset Pager A|with separator", 3L),
+                new UserCursor(UserSortKey.DATE_OF_BIRTH, Sort.Direction.DESC, new Date(20 * DAY), 4L),
+                new UserCursor(UserSortKey.EMAIL, Sort.Direction.ASC, null, 5L),
+                new UserCursor(UserSortKey.BALANCE, Sort.Direction.DESC, new BigDecimal("75.00"), 6L));
+
+        for (UserCursor cursor : cursors) {
+            UserCursor decoded = UserCursor.decode(cursor.encode());
+            assertEquals(cursor.getSortKey(), decoded.getSortKey());
+            assertEquals(cursor.getDirection(), decoded.getDirection());
+            assertEquals(cursor.getValue(), decoded.getValue());
+            assertEquals(cursor.getId(), decoded.getId());
+        }
+    }
+
+    @Test
+    void testMalformedCursorsAreRejected() {
+        List<String> tokens = List.of(
+                "not base64!",
+                token("FULL_NAME|ASC|1"),
+                token("NO_SUCH_KEY|ASC|1|vx"),
+                token("FULL_NAME|UP|1|vx"),
+                token("FULL_NAME|ASC|one|vx"),
+                token("BALANCE|ASC|1|vabc"),
+                token("DATE_OF_BIRTH|ASC|1|vyesterday"),
+                token("BALANCE|ASC|1|n"));
+
+        for (String token : tokens) {
+            assertThrows(InvalidCursorException.class, () -> userService.getAllUsersAfter(null, null, NAME_PREFIX,
+                    null, 2, UserSortKey.FULL_NAME, Sort.Direction.ASC, token), token);
+        }
+    }
+
+    @Test
+    void testSeekResponseDoesNotExposeCredentials() throws Exception {
+        JwtAuthenticationResponse admin = authenticationService.signUp(request("keyset_admin", "Keyset Admin",
+                0, "+375297900099", "1.00"));
+
+        mockMvc.perform(get("/api/users/all/seek")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + admin.getToken())
+                        .param("fullName", NAME_PREFIX)
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"username\":\"keyset_")))
+                .andExpect(content().string(not(containsString("password"))));
+    }
+
+    private List<Long> walk(UserSortKey sortKey, Sort.Direction direction, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<UserSummary> page = userService.getAllUsersAfter(null, null, NAME_PREFIX, null, size,
+                    sortKey, direction, cursor);
+            assertTrue(page.getSize() <= size);
+            page.getContent().forEach(user -> ids.add(user.getId()));
+            cursor = page.getNextCursor();
+            assertTrue(ids.size() <= 7, "the listing does not terminate");
+        } while (cursor != null);
+        return ids;
+    }
+
+    /**
+     * The order the listing promises: by value with nulls as the largest values, then by the
+     * tie-breaking id, all reversed when descending.
+     */
+    @SuppressWarnings("unchecked")
+    private static Comparator<UserSummary> order(UserSortKey sortKey, Sort.Direction direction) {
+        Comparator<UserSummary> ascending = Comparator
+                .comparing((UserSummary user) -> (Comparable<Object>) sortKey.valueOf(user),
+                        Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparingLong(sortKey::tieBreakerOf);
+        return direction.isAscending() ? ascending : ascending.reversed();
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void signUp(int index, String name, int birthDay, String balance) {
+        authenticationService.signUp(request("keyset_" + index, NAME_PREFIX + " " + name, birthDay,
+                "+3752979000" + (10 + index), balance));
+    }
+
+    private static SignUpRequest request(String username, String fullName, int birthDay, String phoneNumber,
+                                         String balance) {
+        SignUpRequest request = signUpRequest(username, fullName, phoneNumber);
+        request.setDateOfBirth(new Date(birthDay * DAY));
+        request.setInitialSum(new BigDecimal(balance));
+        return request;
+    }
+}
@@ -0,0 +1,76 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.UserNameMatch;
+import com.bank.api.techtask.domain.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.List;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserNameSearchTest {
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void testSearchFindsSubstringIgnoringCase() {
+        signUp("fuzzy_sub", "Innokenty Zhukovsky", "+375292000001");
+        signUp("fuzzy_sub2", "Innokenty Zhukov", "+375292000002");
+
+        List<String> usernames = userService.searchUsersByName("UKOVS", 20).stream()
+                .map(UserNameMatch::getUsername)
+                .toList();
+
+        assertEquals(List.of("fuzzy_sub"), usernames);
+    }
+
+    @Test
+    void testSearchToleratesTyposAndRanksBestMatchFirst() {
+        signUp("fuzzy_typo", "Arkady Tsvetkov", "+375292000003");
+        signUp("fuzzy_typo2", "Arkady Tsvetaev", "+375292000004");
+
+        List<UserNameMatch> matches = userService.searchUsersByName("Tsvetkof", 20);
+
+        assertFalse(matches.isEmpty());
+        assertEquals("fuzzy_typo", matches.get(0).getUsername());
+        assertTrue(matches.stream().noneMatch(m -> m.getUsername().equals("fuzzy_typo2")));
+    }
+
+    @Test
+    void testSearchRespectsLimit() {
+        signUp("fuzzy_lim1", "Gennady Belokonev", "+375292000005");
+        signUp("fuzzy_lim2", "Gennady Belokonov", "+375292000006");
+
+        assertEquals(1, userService.searchUsersByName("belokon", 1).size());
+    }
+
+    @Test
+    void testDeletedUserIsNotFound() {
+        signUp("fuzzy_del", "Vsevolod Kolokoltsev", "+375292000007");
+        User user = userService.getByUsername("fuzzy_del");
+        assertEquals(1, userService.searchUsersByName("kolokol", 20).size());
+
+        authenticationService.deleteUserById(user.getId());
+
+        assertTrue(userService.searchUsersByName("kolokol", 20).isEmpty());
+    }
+
+    @Test
+    void testSearchRejectsShortQueryAndInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsersByName(" ab ", 20));
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsersByName("abc", 0));
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsersByName("abc", 101));
+    }
+
+    private void signUp(String username, String fullName, String phoneNumber) {
+        authenticationService.signUp(signUpRequest(username, fullName, phoneNumber));
+    }
+}
@@ -0,0 +1,120 @@
+package com.bank.api.techtask.service;
+
+import com.bank.api.techtask.domain.dto.UserSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchCacheTest {
+
+    private static final Pageable PAGEABLE = PageRequest.of(0, 5, Sort.by("fullName"));
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testConcurrentIdenticalSearchesRunOnce() throws Exception {
+        UserSearchCache cache = new UserSearchCache(Duration.ZERO, 100, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Page<UserSummary>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get(null, null, "Ivan", null, PAGEABLE, () -> {
+                    await(release);
+                    return load().get();
+                })));
+            }
+            while (count("miss") + count("coalesced") < callers) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            Page<UserSummary> first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Page<UserSummary>> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, count("miss"));
+        assertEquals(callers - 1, count("coalesced"));
+    }
+
+    @Test
+    void testResultIsReusedWithinTtlUntilInvalidated() {
+        UserSearchCache cache = new UserSearchCache(Duration.ofMinutes(1), 100, meterRegistry);
+
+        Page<UserSummary> first = cache.get(null, null, "Ivan", null, PAGEABLE, load());
+        Page<UserSummary> second = cache.get(null, null, "Ivan", null, PAGEABLE, load());
+        cache.get(null, null, "Petr", null, PAGEABLE, load());
+        cache.invalidate();
+        cache.get(null, null, "Ivan", null, PAGEABLE, load());
+
+        assertSame(first, second);
+        assertEquals(3, loads.get());
+        assertEquals(1, count("hit"));
+        assertEquals(3, count("miss"));
+    }
+
+    @Test
+    void testZeroTtlDisablesResultCache() {
+        UserSearchCache cache = new UserSearchCache(Duration.ZERO, 100, meterRegistry);
+
+        cache.get(null, null, "Ivan", null, PAGEABLE, load());
+        cache.get(null, null, "Ivan", null, PAGEABLE, load());
+
+        assertEquals(2, loads.get());
+        assertEquals(0, count("hit"));
+    }
+
+    @Test
+    void testFailedSearchIsNotCached() {
+        UserSearchCache cache = new UserSearchCache(Duration.ofMinutes(1), 100, meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(null, null, "Ivan", null, PAGEABLE, () -> {
+            throw new IllegalStateException("database is down");
+        }));
+        cache.get(null, null, "Ivan", null, PAGEABLE, load());
+
+        assertEquals(1, loads.get());
+    }
+
+    private Supplier<Page<UserSummary>> load() {
+        return () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of(), PAGEABLE, 0);
+        };
+    }
+
+    private long count(String result) {
+        return (long) meterRegistry.get("users.search.cache").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package com.bank.api.techtask.service;
 
 import com.bank.api.techtask.config.JwtAuthenticationFilter;
+import com.bank.api.techtask.domain.dto.VersionedBalance;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent;
+import com.bank.api.techtask.domain.event.BalanceChangedEvent.AccountBalance;
 import com.bank.api.techtask.domain.model.Account;
 import com.bank.api.techtask.domain.model.User;
 import com.bank.api.techtask.exception.InsufficientBalanceException;
 import com.bank.api.techtask.exception.UserNotFoundException;
 import com.bank.api.techtask.repository.AccountRepository;
 import com.bank.api.techtask.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,6 +41,24 @@ class UserServiceTest {
     @Mock
     private HttpServletRequest httpServletRequest;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransferHistoryService transferHistoryService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private BalanceEventHub balanceEventHub;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private UserService userService;
 
@@ -63,10 +90,12 @@ class UserServiceTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(senderUser));
         when(accountRepository.findById(recipientAccountId)).thenReturn(Optional.of(recipientAccount));
 
+        when(accountRepository.debit(userId, amount)).thenReturn(0);
+
         assertThrows(InsufficientBalanceException.class, () -> userService.moneyTransfer(recipientAccountId, amount));
 
-        verify(accountRepository, never()).save(senderAccount);
-        verify(accountRepository, never()).save(recipientAccount);
+        verify(accountRepository, never()).credit(any(), any());
+        verify(eventPublisher, never()).publishEvent(any(BalanceChangedEvent.class));
     }
 
     @Test
@@ -92,13 +121,22 @@ class UserServiceTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(senderUser));
         when(accountRepository.findById(recipientAccountId)).thenReturn(Optional.of(recipientAccount));
 
-        userService.moneyTransfer(recipientAccountId, amount);
+        when(accountRepository.debit(userId, amount)).thenReturn(1);
+        when(accountRepository.credit(recipientAccountId, amount)).thenReturn(1);
+        when(accountRepository.findBalancesByIdIn(List.of(userId, recipientAccountId))).thenReturn(List.of(
+                new VersionedBalance(userId, new BigDecimal("50.00"), 3),
+                new VersionedBalance(recipientAccountId, new BigDecimal("100.00"), 7)));
 
-        assertEquals(new BigDecimal("50.00"), senderAccount.getBalance());
-        assertEquals(new BigDecimal("100.00"), recipientAccount.getBalance());
+        userService.moneyTransfer(recipientAccountId, amount);
 
-        verify(accountRepository, times(1)).save(senderAccount);
-        verify(accountRepository, times(1)).save(recipientAccount);
+        InOrder order = inOrder(accountRepository);
+        order.verify(accountRepository).debit(userId, amount);
+        order.verify(accountRepository).credit(recipientAccountId, amount);
+        verify(accountRepository, never()).save(any(Account.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof BalanceChangedEvent changed
+                && changed.getBalances().equals(List.of(
+                        new AccountBalance(userId, new BigDecimal("50.00"), 3),
+                        new AccountBalance(recipientAccountId, new BigDecimal("100.00"), 7)))));
     }
 
     @Test
@@ -118,7 +156,7 @@ class UserServiceTest {
 
         assertThrows(RuntimeException.class, () -> userService.moneyTransfer(userId, amount));
 
-        verify(accountRepository, never()).save(senderAccount);
+        verify(accountRepository, never()).debit(any(), any());
     }
 
     @Test
@@ -140,7 +178,7 @@ class UserServiceTest {
 
         assertThrows(RuntimeException.class, () -> userService.moneyTransfer(recipientAccountId, amount));
 
-        verify(accountRepository, never()).save(senderAccount);
+        verify(accountRepository, never()).debit(any(), any());
     }
 
     @Test
@@ -156,6 +194,6 @@ class UserServiceTest {
 
         assertThrows(UserNotFoundException.class, () -> userService.moneyTransfer(recipientAccountId, amount));
 
-        verify(accountRepository, never()).save(any(Account.class));
+        verify(accountRepository, never()).debit(any(), any());
     }
 }
@@ -0,0 +1,81 @@
+package com.bank.api.techtask.trace;
+
+import com.bank.api.techtask.domain.dto.JwtAuthenticationResponse;
+import com.bank.api.techtask.repository.UserRepository;
+import com.bank.api.techtask.service.AuthenticationService;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static com.bank.api.techtask.TestUsers.signUpRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestTraceFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testTransferTraceCountsStatementsAndWaits() throws Exception {
+        JwtAuthenticationResponse sender = authenticationService.signUp(signUpRequest("trace_sender", "+375294000001"));
+        authenticationService.signUp(signUpRequest("trace_recipient", "+375294000002"));
+        Long recipientAccountId = userRepository.findByUsername("trace_recipient").orElseThrow()
+                .getAccount().getId();
+
+        MockHttpServletResponse response = mockMvc.perform(post("/api/users/transfer")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sender.getToken())
+                        .param("recipientAccountId", recipientAccountId.toString())
+                        .param("amount", "10.00"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        Map<String, String> trace = parse(response.getHeader(RequestTraceFilter.TRACE_HEADER));
+        assertEquals(response.getHeader(RequestTraceFilter.TRACE_ID_HEADER), trace.get("traceId"));
+        // token user lookup, sender, recipient, two balance updates
+        assertTrue(Integer.parseInt(trace.get("sql")) >= 5);
+        assertTrue(Double.parseDouble(trace.get("jdbcMs")) > 0);
+        assertTrue(Double.parseDouble(trace.get("authMs")) > 0);
+        assertTrue(trace.containsKey("connectionWaitMs"));
+        assertTrue(trace.containsKey("lockWaitMs"));
+    }
+
+    @Test
+    void testAnonymousRequestIsTracedWithoutStatements() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/users/all"))
+                .andExpect(status().isForbidden())
+                .andReturn().getResponse();
+
+        Map<String, String> trace = parse(response.getHeader(RequestTraceFilter.TRACE_HEADER));
+        assertEquals("0", trace.get("sql"));
+        assertEquals("0.00", trace.get("authMs"));
+        assertNull(RequestTrace.current());
+    }
+
+    private static Map<String, String> parse(String header) {
+        assertNotNull(header);
+        Map<String, String> values = new HashMap<>();
+        for (String pair : header.split(" ")) {
+            String[] keyValue = pair.split("=", 2);
+            values.put(keyValue[0], keyValue[1]);
+        }
+        return values;
+    }
+}